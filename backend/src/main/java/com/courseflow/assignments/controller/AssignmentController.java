@@ -2,15 +2,22 @@ package com.courseflow.assignments.controller;
 
 import com.courseflow.assignments.dto.AssignmentRequest;
 import com.courseflow.assignments.dto.AssignmentResponse;
+import com.courseflow.assignments.dto.BulkGradeRequest;
+import com.courseflow.assignments.dto.BulkGradeResponse;
 import com.courseflow.assignments.dto.GradeSubmissionRequest;
+import com.courseflow.assignments.dto.SubmissionReceiptResponse;
 import com.courseflow.assignments.dto.SubmissionRequest;
 import com.courseflow.assignments.dto.SubmissionResponse;
+import com.courseflow.assignments.dto.SubmissionSummaryResponse;
 import com.courseflow.assignments.service.AssignmentService;
+import com.courseflow.assignments.service.SubmissionIngestionService;
 import com.courseflow.common.dto.ApiResponse;
+import com.courseflow.common.dto.CursorPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -26,6 +33,7 @@ import java.util.List;
 public class AssignmentController {
     
     private final AssignmentService assignmentService;
+    private final SubmissionIngestionService submissionIngestionService;
     
     @GetMapping
     @Operation(summary = "Get assignments", description = "Get all assignments for a course. User must be enrolled in the course.")
@@ -82,6 +90,17 @@ public class AssignmentController {
         return ResponseEntity.ok(ApiResponse.success(submission, "Assignment submitted successfully"));
     }
     
+    @PostMapping("/{assignmentId}/submissions/ingest")
+    @Operation(summary = "Submit assignment (ingestion mode)", description = "Submit an assignment with a single write and return a receipt (202). The gradebook is updated shortly after. Answers 503 with Retry-After when too many submissions arrive at once.")
+    public ResponseEntity<ApiResponse<SubmissionReceiptResponse>> ingestSubmission(
+            @PathVariable String courseId,
+            @PathVariable String assignmentId,
+            @Valid @RequestBody SubmissionRequest request) {
+        SubmissionReceiptResponse receipt = submissionIngestionService.ingest(courseId, assignmentId, request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(ApiResponse.success(receipt, "Submission received"));
+    }
+    
     @GetMapping("/{assignmentId}/submissions")
     @Operation(summary = "Get submissions", description = "Get all submissions for an assignment. Only instructors and admins can view all submissions.")
     public ResponseEntity<ApiResponse<List<SubmissionResponse>>> getSubmissions(
@@ -91,6 +110,27 @@ public class AssignmentController {
         return ResponseEntity.ok(ApiResponse.success(submissions));
     }
     
+    @GetMapping("/{assignmentId}/submissions/page")
+    @Operation(summary = "Get submissions page", description = "Get a page of submission summaries (without answer bodies), newest first. Pass nextCursor as cursor for the next page. Only instructors and admins can view all submissions.")
+    public ResponseEntity<ApiResponse<CursorPage<SubmissionSummaryResponse>>> getSubmissionPage(
+            @PathVariable String courseId,
+            @PathVariable String assignmentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<SubmissionSummaryResponse> page = assignmentService.getSubmissionPage(courseId, assignmentId, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+    
+    @GetMapping("/{assignmentId}/submissions/{submissionId}")
+    @Operation(summary = "Get submission", description = "Get a submission with its full answer and attachments. Students can only view their own submission.")
+    public ResponseEntity<ApiResponse<SubmissionResponse>> getSubmission(
+            @PathVariable String courseId,
+            @PathVariable String assignmentId,
+            @PathVariable String submissionId) {
+        SubmissionResponse submission = assignmentService.getSubmission(courseId, assignmentId, submissionId);
+        return ResponseEntity.ok(ApiResponse.success(submission));
+    }
+    
     @PatchMapping("/{assignmentId}/submissions/{submissionId}/grade")
     @Operation(summary = "Grade submission", description = "Grade a submission. Only instructors and admins can grade submissions.")
     public ResponseEntity<ApiResponse<SubmissionResponse>> gradeSubmission(
@@ -101,5 +141,15 @@ public class AssignmentController {
         SubmissionResponse submission = assignmentService.gradeSubmission(courseId, assignmentId, submissionId, request);
         return ResponseEntity.ok(ApiResponse.success(submission, "Submission graded successfully"));
     }
+    
+    @PostMapping("/{assignmentId}/submissions/grades")
+    @Operation(summary = "Grade submissions in bulk", description = "Grade many submissions of an assignment at once and return a result per grade. Only instructors and admins can grade submissions.")
+    public ResponseEntity<ApiResponse<BulkGradeResponse>> gradeSubmissions(
+            @PathVariable String courseId,
+            @PathVariable String assignmentId,
+            @Valid @RequestBody BulkGradeRequest request) {
+        BulkGradeResponse result = assignmentService.gradeSubmissions(courseId, assignmentId, request);
+        return ResponseEntity.ok(ApiResponse.success(result, 
+                "Graded " + result.getGraded() + " of " + result.getResults().size() + " submissions"));
+    }
 }
-
@@ -0,0 +1,48 @@
+package com.courseflow.assignments.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for grading many submissions of one assignment at once.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkGradeRequest {
+    
+    @NotEmpty(message = "At least one grade is required")
+    @Size(max = 1000, message = "At most 1000 grades can be submitted at once")
+    @Valid
+    private List<GradeEntry> grades;
+    
+    /**
+     * Grade for a single submission.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class GradeEntry {
+        
+        @NotBlank(message = "Submission ID is required")
+        private String submissionId;
+        
+        @NotNull(message = "Score is required")
+        @PositiveOrZero(message = "Score must be non-negative")
+        private Double score;
+        
+        private String feedback;
+    }
+}
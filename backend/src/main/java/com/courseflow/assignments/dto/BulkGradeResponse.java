@@ -0,0 +1,40 @@
+package com.courseflow.assignments.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response DTO for bulk grading, with one result per requested grade (in request order).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkGradeResponse {
+    
+    private int graded;
+    private int failed;
+    
+    @Builder.Default
+    private List<RowResult> results = new ArrayList<>();
+    
+    /**
+     * Outcome of a single grade.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        private String submissionId;
+        private String studentId;
+        private boolean success;
+        private String errorCode;
+        private String message;
+    }
+}
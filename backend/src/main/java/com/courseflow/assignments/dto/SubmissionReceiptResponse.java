@@ -0,0 +1,25 @@
+package com.courseflow.assignments.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Response DTO acknowledging a submission accepted through the ingestion queue.
+ * The submission is stored when the receipt is returned; the gradebook follows shortly after.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionReceiptResponse {
+    
+    private String submissionId;
+    private String courseId;
+    private String assignmentId;
+    private String studentId;
+    private Instant receivedAt;
+}
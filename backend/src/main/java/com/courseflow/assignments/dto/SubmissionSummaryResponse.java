@@ -0,0 +1,26 @@
+package com.courseflow.assignments.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Response DTO for submission list views. Leaves out the answer body and attachments;
+ * fetch a single submission for those.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionSummaryResponse {
+    
+    private String id;
+    private String courseId;
+    private String assignmentId;
+    private String studentId;
+    private Instant submittedAt;
+    private SubmissionResponse.GradeInfo grade;
+}
@@ -22,6 +22,7 @@ import java.time.Instant;
 @AllArgsConstructor
 @Document(collection = "assignments")
 @CompoundIndex(name = "course_due_date_idx", def = "{'courseId': 1, 'dueDate': 1}")
+@CompoundIndex(name = "course_published_due_date_idx", def = "{'courseId': 1, 'published': 1, 'dueDate': 1}")
 public class Assignment {
     
     @Id
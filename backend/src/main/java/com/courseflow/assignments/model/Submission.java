@@ -23,7 +23,10 @@ import java.util.List;
 @AllArgsConstructor
 @Document(collection = "submissions")
 @CompoundIndex(name = "assignment_student_idx", def = "{'assignmentId': 1, 'studentId': 1}", unique = true)
-@CompoundIndex(name = "course_student_idx", def = "{'courseId': 1, 'studentId': 1}")
+@CompoundIndex(name = "assignment_submitted_at_id_idx", def = "{'assignmentId': 1, 'submittedAt': -1, '_id': -1}")
+@CompoundIndex(name = "course_student_submitted_at_idx", def = "{'courseId': 1, 'studentId': 1, 'submittedAt': -1}")
+@CompoundIndex(name = "projection_pending_submitted_at_idx", def = "{'projectionPending': 1, 'submittedAt': 1}",
+        partialFilter = "{'projectionPending': true}")
 public class Submission {
     
     @Id
@@ -43,6 +46,17 @@ public class Submission {
      */
     private String textAnswer;
     
+    /**
+     * Compressed text answer, stored instead of textAnswer for long answers.
+     * Read answers through SubmissionTextCodec rather than these fields directly.
+     */
+    private byte[] textAnswerZ;
+    
+    /**
+     * Codec of textAnswerZ (e.g. "deflate"); absent for plain text answers.
+     */
+    private String textAnswerCodec;
+    
     /**
      * List of attachment file names or URLs (future: file uploads).
      */
@@ -57,6 +71,12 @@ public class Submission {
      */
     private Grade grade;
     
+    /**
+     * Set by every submission or grade write until the gradebook projection of that state has run;
+     * submissions left pending are re-projected by the sweeper. Absent otherwise.
+     */
+    private Boolean projectionPending;
+    
     /**
      * Grade information nested object.
      */
@@ -2,26 +2,50 @@ package com.courseflow.assignments.service;
 
 import com.courseflow.assignments.dto.AssignmentRequest;
 import com.courseflow.assignments.dto.AssignmentResponse;
+import com.courseflow.assignments.dto.BulkGradeRequest;
+import com.courseflow.assignments.dto.BulkGradeResponse;
 import com.courseflow.assignments.dto.GradeSubmissionRequest;
 import com.courseflow.assignments.dto.SubmissionRequest;
 import com.courseflow.assignments.dto.SubmissionResponse;
+import com.courseflow.assignments.dto.SubmissionSummaryResponse;
 import com.courseflow.assignments.model.Assignment;
 import com.courseflow.assignments.model.Submission;
 import com.courseflow.assignments.repository.AssignmentRepository;
 import com.courseflow.assignments.repository.SubmissionRepository;
 import com.courseflow.auth.service.AuthService;
+import com.courseflow.calendar.service.DueItemService;
+import com.courseflow.common.dto.CursorPage;
 import com.courseflow.common.error.ApiException;
 import com.courseflow.courses.repository.CourseRepository;
 import com.courseflow.enrollments.service.EnrollmentService;
-import com.courseflow.grades.service.GradebookService;
+import com.courseflow.grades.model.GradebookOutboxEvent;
+import com.courseflow.grades.service.GradeStatsService;
+import com.courseflow.grades.service.GradebookProjectionService;
 import com.courseflow.users.model.User;
+import com.mongodb.bulk.BulkWriteError;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -37,7 +61,17 @@ public class AssignmentService {
     private final CourseRepository courseRepository;
     private final EnrollmentService enrollmentService;
     private final AuthService authService;
-    private final GradebookService gradebookService;
+    private final GradebookProjectionService gradebookProjectionService;
+    private final GradeStatsService gradeStatsService;
+    private final SubmissionTextCodec submissionTextCodec;
+    private final DueItemService dueItemService;
+    private final MongoTemplate mongoTemplate;
+    
+    @Value("${assignments.submissions.page-size.default:50}")
+    private int defaultSubmissionPageSize;
+    
+    @Value("${assignments.submissions.page-size.max:200}")
+    private int maxSubmissionPageSize;
     
     /**
      * Get all assignments for a course.
@@ -95,6 +129,7 @@ public class AssignmentService {
                 .build();
         
         assignment = assignmentRepository.save(assignment);
+        dueItemService.syncAssignment(assignment);
         log.info("Assignment created: {} by user {} in course {}", 
                 assignment.getId(), currentUser.getId(), courseId);
         
@@ -155,6 +190,7 @@ public class AssignmentService {
         }
         
         // Update assignment fields
+        boolean pointsChanged = !Objects.equals(assignment.getPoints(), request.getPoints());
         assignment.setTitle(request.getTitle());
         assignment.setDescription(request.getDescription());
         assignment.setDueDate(request.getDueDate());
@@ -164,6 +200,11 @@ public class AssignmentService {
         }
         
         assignment = assignmentRepository.save(assignment);
+        dueItemService.syncAssignment(assignment);
+        if (pointsChanged) {
+            // Grade statistics are binned in percent of points; recompute them at the new scale
+            gradeStatsService.rebuildItem(assignmentId);
+        }
         log.info("Assignment updated: {} by user {} in course {}", 
                 assignmentId, currentUser.getId(), courseId);
         
@@ -195,6 +236,8 @@ public class AssignmentService {
         
         // Delete assignment (this will cascade delete submissions if configured)
         assignmentRepository.deleteById(assignmentId);
+        dueItemService.removeAssignment(assignmentId);
+        gradeStatsService.removeItem(courseId, assignmentId);
         log.info("Assignment deleted: {} by user {} in course {}", 
                 assignmentId, currentUser.getId(), courseId);
     }
@@ -236,15 +279,17 @@ public class AssignmentService {
                     .textAnswer(request.getTextAnswer())
                     .attachments(request.getAttachments() != null ? 
                             new java.util.ArrayList<>(request.getAttachments()) : new java.util.ArrayList<>())
+                    .projectionPending(true)
                     .build();
             
+            // Outbox entry first: the gradebook is projected asynchronously from the stored submission;
+            // the pending flag written with it covers an entry projected before the write lands
+            gradebookProjectionService.enqueue(courseId, assignmentId, currentUser.getId(), 
+                    GradebookOutboxEvent.EventType.SUBMITTED);
             submission = submissionRepository.save(submission);
             log.info("Assignment submitted: assignment {} by student {} in course {}", 
                     assignmentId, currentUser.getId(), courseId);
             
-            // Update gradebook on submission
-            gradebookService.updateGradebookOnSubmission(courseId, currentUser.getId(), assignmentId, "SUBMITTED");
-            
             return mapToSubmissionResponse(submission);
         } catch (DuplicateKeyException e) {
             throw new ApiException("SUBMISSION_ALREADY_EXISTS", 
@@ -287,6 +332,97 @@ public class AssignmentService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Get one page of submission summaries for an assignment, newest first.
+     * Keyset pagination on (submittedAt, _id): each page is an index range scan regardless of depth,
+     * and the answer body and attachments are never read. Only instructors can view all submissions.
+     * 
+     * @param courseId Course ID
+     * @param assignmentId Assignment ID
+     * @param cursor Cursor from the previous page, or null for the first page
+     * @param limit Page size (capped at the configured maximum)
+     * @return Page of submission summaries
+     */
+    public CursorPage<SubmissionSummaryResponse> getSubmissionPage(String courseId, String assignmentId, 
+                                                                   String cursor, Integer limit) {
+        User currentUser = authService.getCurrentUser();
+        
+        // Check permission: must be instructor/TA of the course or admin
+        boolean isInstructor = enrollmentService.checkInstructorRole(courseId, currentUser.getId());
+        boolean isAdmin = currentUser.getRole() == User.UserRole.ADMIN;
+        
+        if (!isInstructor && !isAdmin) {
+            throw new ApiException("INSUFFICIENT_PERMISSIONS", 
+                    "Only instructors and admins can view all submissions", 403);
+        }
+        
+        // Verify assignment exists and belongs to course
+        if (!assignmentRepository.existsByIdAndCourseId(assignmentId, courseId)) {
+            throw new ApiException("ASSIGNMENT_NOT_FOUND", "Assignment not found", 404);
+        }
+        
+        int pageSize = limit == null || limit <= 0 ? defaultSubmissionPageSize : Math.min(limit, maxSubmissionPageSize);
+        
+        Criteria criteria = Criteria.where("assignmentId").is(assignmentId);
+        if (cursor != null && !cursor.isBlank()) {
+            SubmissionCursor after = SubmissionCursor.decode(cursor);
+            criteria = criteria.orOperator(
+                    Criteria.where("submittedAt").lt(after.submittedAt()),
+                    Criteria.where("submittedAt").is(after.submittedAt()).and("_id").lt(new ObjectId(after.id())));
+        }
+        
+        // Fetch one extra row to learn whether another page follows
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.desc("submittedAt"), Sort.Order.desc("_id")))
+                .limit(pageSize + 1);
+        query.fields().exclude("textAnswer", "textAnswerZ", "attachments");
+        List<Submission> submissions = mongoTemplate.find(query, Submission.class);
+        
+        boolean hasMore = submissions.size() > pageSize;
+        if (hasMore) {
+            submissions = submissions.subList(0, pageSize);
+        }
+        Submission last = submissions.isEmpty() ? null : submissions.get(submissions.size() - 1);
+        
+        return CursorPage.<SubmissionSummaryResponse>builder()
+                .items(submissions.stream()
+                        .map(this::mapToSubmissionSummary)
+                        .collect(Collectors.toList()))
+                .nextCursor(hasMore ? new SubmissionCursor(last.getSubmittedAt(), last.getId()).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+    
+    /**
+     * Get a single submission with its full answer body and attachments.
+     * Instructors/admins can view any submission; students only their own.
+     * 
+     * @param courseId Course ID
+     * @param assignmentId Assignment ID
+     * @param submissionId Submission ID
+     * @return Submission response
+     */
+    public SubmissionResponse getSubmission(String courseId, String assignmentId, String submissionId) {
+        User currentUser = authService.getCurrentUser();
+        
+        Submission submission = submissionRepository.findById(submissionId)
+                .filter(found -> found.getAssignmentId().equals(assignmentId) && found.getCourseId().equals(courseId))
+                .orElseThrow(() -> new ApiException("SUBMISSION_NOT_FOUND", "Submission not found for this assignment", 404));
+        
+        if (!submission.getStudentId().equals(currentUser.getId())) {
+            // Check permission: must be instructor/TA of the course or admin
+            boolean isInstructor = enrollmentService.checkInstructorRole(courseId, currentUser.getId());
+            boolean isAdmin = currentUser.getRole() == User.UserRole.ADMIN;
+            
+            if (!isInstructor && !isAdmin) {
+                throw new ApiException("INSUFFICIENT_PERMISSIONS", 
+                        "Only instructors and admins can view other students' submissions", 403);
+            }
+        }
+        
+        return mapToSubmissionResponse(submission);
+    }
+    
     /**
      * Grade a submission. Only instructors/admins can grade submissions.
      * 
@@ -340,18 +476,136 @@ public class AssignmentService {
                 .build();
         
         submission.setGrade(grade);
+        submission.setProjectionPending(true);
+        gradebookProjectionService.enqueue(courseId, assignmentId, submission.getStudentId(), 
+                GradebookOutboxEvent.EventType.GRADED);
         submission = submissionRepository.save(submission);
         
         log.info("Submission graded: submission {} for assignment {} by user {} in course {}", 
                 submissionId, assignmentId, currentUser.getId(), courseId);
         
-        // Update gradebook on grade
-        gradebookService.updateGradebookOnGrade(courseId, submission.getStudentId(), assignmentId, 
-                request.getScore(), assignment.getPoints());
-        
         return mapToSubmissionResponse(submission);
     }
     
+    /**
+     * Grade many submissions of one assignment at once. Only instructors/admins can grade submissions.
+     * The assignment is loaded once, the submissions with a single $in query, and the grades are
+     * written with one unordered bulk write; the gradebooks follow through the gradebook outbox.
+     * Invalid rows are reported individually and do not stop the others.
+     * 
+     * @param courseId Course ID
+     * @param assignmentId Assignment ID
+     * @param request Bulk grade request
+     * @return Per-row results in request order
+     */
+    public BulkGradeResponse gradeSubmissions(String courseId, String assignmentId, BulkGradeRequest request) {
+        User currentUser = authService.getCurrentUser();
+        
+        // Check permission: must be instructor/TA of the course or admin
+        boolean isInstructor = enrollmentService.checkInstructorRole(courseId, currentUser.getId());
+        boolean isAdmin = currentUser.getRole() == User.UserRole.ADMIN;
+        
+        if (!isInstructor && !isAdmin) {
+            throw new ApiException("INSUFFICIENT_PERMISSIONS", 
+                    "Only instructors and admins can grade submissions", 403);
+        }
+        
+        // Verify assignment exists and belongs to course
+        Assignment assignment = assignmentRepository.findById(assignmentId)
+                .orElseThrow(() -> new ApiException("ASSIGNMENT_NOT_FOUND", "Assignment not found", 404));
+        
+        if (!assignment.getCourseId().equals(courseId)) {
+            throw new ApiException("ASSIGNMENT_NOT_FOUND", "Assignment not found in this course", 404);
+        }
+        
+        // Load the owners of all requested submissions in one query (no answer bodies)
+        List<BulkGradeRequest.GradeEntry> entries = request.getGrades();
+        Query submissionsQuery = new Query(Criteria.where("_id").in(entries.stream()
+                .map(BulkGradeRequest.GradeEntry::getSubmissionId)
+                .collect(Collectors.toSet())));
+        submissionsQuery.fields().include("assignmentId", "studentId");
+        Map<String, Submission> submissions = mongoTemplate.find(submissionsQuery, Submission.class).stream()
+                .collect(Collectors.toMap(Submission::getId, submission -> submission));
+        
+        // Validate every row and queue the valid ones
+        Instant gradedAt = Instant.now();
+        List<BulkGradeResponse.RowResult> results = new ArrayList<>(entries.size());
+        List<BulkGradeRequest.GradeEntry> accepted = new ArrayList<>();
+        List<BulkGradeResponse.RowResult> acceptedResults = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        BulkOperations submissionWrites = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Submission.class);
+        
+        for (BulkGradeRequest.GradeEntry entry : entries) {
+            Submission submission = submissions.get(entry.getSubmissionId());
+            BulkGradeResponse.RowResult result = BulkGradeResponse.RowResult.builder()
+                    .submissionId(entry.getSubmissionId())
+                    .studentId(submission != null ? submission.getStudentId() : null)
+                    .build();
+            results.add(result);
+            
+            if (!seen.add(entry.getSubmissionId())) {
+                reject(result, "DUPLICATE_SUBMISSION", "Submission appears more than once in this request");
+            } else if (submission == null || !assignmentId.equals(submission.getAssignmentId())) {
+                reject(result, "SUBMISSION_NOT_FOUND", "Submission not found for this assignment");
+            } else if (entry.getScore() > assignment.getPoints()) {
+                reject(result, "INVALID_SCORE", 
+                        "Score cannot exceed assignment points (" + assignment.getPoints() + ")");
+            } else {
+                Submission.Grade grade = Submission.Grade.builder()
+                        .score(entry.getScore())
+                        .feedback(entry.getFeedback())
+                        .gradedBy(currentUser.getId())
+                        .gradedAt(gradedAt)
+                        .build();
+                submissionWrites.updateOne(
+                        new Query(Criteria.where("_id").is(entry.getSubmissionId()).and("assignmentId").is(assignmentId)),
+                        new Update().set("grade", grade).set("projectionPending", true));
+                accepted.add(entry);
+                acceptedResults.add(result);
+            }
+        }
+        
+        // Apply all submission grades in one unordered bulk write; failed writes are reported per row
+        if (!accepted.isEmpty()) {
+            // One outbox insert for all rows; the gradebooks are projected asynchronously
+            gradebookProjectionService.enqueueAll(courseId, assignmentId, 
+                    acceptedResults.stream().map(BulkGradeResponse.RowResult::getStudentId).toList(),
+                    GradebookOutboxEvent.EventType.GRADED);
+            
+            Set<Integer> failedIndexes = new HashSet<>();
+            try {
+                submissionWrites.execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    failedIndexes.add(error.getIndex());
+                    reject(acceptedResults.get(error.getIndex()), "WRITE_FAILED", error.getMessage());
+                }
+            }
+            
+            for (int i = 0; i < accepted.size(); i++) {
+                if (!failedIndexes.contains(i)) {
+                    acceptedResults.get(i).setSuccess(true);
+                }
+            }
+        }
+        
+        int graded = (int) results.stream().filter(BulkGradeResponse.RowResult::isSuccess).count();
+        log.info("Bulk graded {} of {} submissions for assignment {} by user {} in course {}", 
+                graded, results.size(), assignmentId, currentUser.getId(), courseId);
+        
+        return BulkGradeResponse.builder()
+                .graded(graded)
+                .failed(results.size() - graded)
+                .results(results)
+                .build();
+    }
+    
+    private static void reject(BulkGradeResponse.RowResult result, String errorCode, String message) {
+        result.setSuccess(false);
+        result.setErrorCode(errorCode);
+        result.setMessage(message);
+    }
+    
     /**
      * Map Assignment entity to AssignmentResponse DTO.
      */
@@ -370,6 +624,56 @@ public class AssignmentService {
                 .build();
     }
     
+    /**
+     * Map Submission entity (summary projection) to SubmissionSummaryResponse DTO.
+     */
+    private SubmissionSummaryResponse mapToSubmissionSummary(Submission submission) {
+        SubmissionResponse.GradeInfo gradeInfo = null;
+        if (submission.getGrade() != null) {
+            gradeInfo = SubmissionResponse.GradeInfo.builder()
+                    .score(submission.getGrade().getScore())
+                    .feedback(submission.getGrade().getFeedback())
+                    .gradedBy(submission.getGrade().getGradedBy())
+                    .gradedAt(submission.getGrade().getGradedAt())
+                    .build();
+        }
+        
+        return SubmissionSummaryResponse.builder()
+                .id(submission.getId())
+                .courseId(submission.getCourseId())
+                .assignmentId(submission.getAssignmentId())
+                .studentId(submission.getStudentId())
+                .submittedAt(submission.getSubmittedAt())
+                .grade(gradeInfo)
+                .build();
+    }
+    
+    /**
+     * Position in the (submittedAt desc, _id desc) submission order, encoded as an opaque
+     * URL-safe string of the form "epochMillis:id".
+     */
+    private record SubmissionCursor(Instant submittedAt, String id) {
+        
+        String encode() {
+            String raw = submittedAt.toEpochMilli() + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static SubmissionCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(':');
+                String id = raw.substring(separator + 1);
+                if (separator <= 0 || !ObjectId.isValid(id)) {
+                    throw new IllegalArgumentException("Malformed cursor");
+                }
+                return new SubmissionCursor(Instant.ofEpochMilli(Long.parseLong(raw.substring(0, separator))), id);
+            } catch (IllegalArgumentException e) {
+                throw new ApiException("INVALID_CURSOR", "Invalid pagination cursor", 400);
+            }
+        }
+    }
+    
     /**
      * Map Submission entity to SubmissionResponse DTO.
      */
@@ -389,7 +693,7 @@ public class AssignmentService {
                 .courseId(submission.getCourseId())
                 .assignmentId(submission.getAssignmentId())
                 .studentId(submission.getStudentId())
-                .textAnswer(submission.getTextAnswer())
+                .textAnswer(submissionTextCodec.decodeTextAnswer(submission))
                 .attachments(submission.getAttachments() != null ? 
                         new java.util.ArrayList<>(submission.getAttachments()) : new java.util.ArrayList<>())
                 .submittedAt(submission.getSubmittedAt())
@@ -0,0 +1,331 @@
+package com.courseflow.assignments.service;
+
+import com.courseflow.assignments.dto.SubmissionReceiptResponse;
+import com.courseflow.assignments.dto.SubmissionRequest;
+import com.courseflow.assignments.model.Assignment;
+import com.courseflow.assignments.model.Submission;
+import com.courseflow.assignments.repository.AssignmentRepository;
+import com.courseflow.auth.service.AuthService;
+import com.courseflow.common.error.ApiException;
+import com.courseflow.common.error.ServiceBusyException;
+import com.courseflow.enrollments.service.EnrollmentService;
+import com.courseflow.grades.service.GradebookProjectionService;
+import com.courseflow.grades.service.GradebookService;
+import com.courseflow.users.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Submission ingestion mode for deadline bursts.
+ * 
+ * A submission is acknowledged after a single insert: enrollment comes from the cached
+ * authorization checks, the assignment from a short-lived cache, and duplicates are rejected by
+ * the unique (assignment, student) index instead of a lookup. The stored submission carries
+ * {@code projectionPending}, which makes it its own durable outbox entry.
+ * 
+ * Gradebook projection is handed to a bounded queue drained by a small worker pool; each worker
+ * coalesces what is queued into one projection per assignment. Backpressure is explicit: when
+ * too many inserts are in flight the request is refused with 503 and Retry-After, and when the
+ * queue is full the submission stays pending for the sweeper instead of blocking the request.
+ */
+@Slf4j
+@Service
+public class SubmissionIngestionService {
+    
+    private final MongoTemplate mongoTemplate;
+    private final AssignmentRepository assignmentRepository;
+    private final EnrollmentService enrollmentService;
+    private final AuthService authService;
+    private final GradebookService gradebookService;
+    private final GradebookProjectionService gradebookProjectionService;
+    private final Cache<String, Optional<AssignmentRef>> assignments;
+    private final Semaphore inFlight;
+    private final BlockingQueue<PendingProjection> queue;
+    private final List<Thread> workers = new ArrayList<>();
+    private final long acquireTimeoutMs;
+    private final long retryAfterSeconds;
+    private final int batchSize;
+    private final long sweepAgeMs;
+    private volatile boolean running = true;
+    
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter overflow;
+    private final Timer projectionLatency;
+    
+    public SubmissionIngestionService(
+            MongoTemplate mongoTemplate,
+            AssignmentRepository assignmentRepository,
+            EnrollmentService enrollmentService,
+            AuthService authService,
+            GradebookService gradebookService,
+            GradebookProjectionService gradebookProjectionService,
+            MeterRegistry meterRegistry,
+            @Value("${assignments.ingestion.max-in-flight:200}") int maxInFlight,
+            @Value("${assignments.ingestion.acquire-timeout:100}") long acquireTimeoutMs,
+            @Value("${assignments.ingestion.retry-after:2}") long retryAfterSeconds,
+            @Value("${assignments.ingestion.queue-capacity:10000}") int queueCapacity,
+            @Value("${assignments.ingestion.workers:2}") int workerCount,
+            @Value("${assignments.ingestion.batch-size:500}") int batchSize,
+            @Value("${assignments.ingestion.sweep-age:30000}") long sweepAgeMs,
+            @Value("${assignments.ingestion.assignment-cache-ttl:30000}") long assignmentCacheTtlMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.assignmentRepository = assignmentRepository;
+        this.enrollmentService = enrollmentService;
+        this.authService = authService;
+        this.gradebookService = gradebookService;
+        this.gradebookProjectionService = gradebookProjectionService;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.batchSize = batchSize;
+        this.sweepAgeMs = sweepAgeMs;
+        
+        this.assignments = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMillis(assignmentCacheTtlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, assignments, "ingestionAssignments");
+        
+        this.accepted = Counter.builder("assignments.ingestion.submissions")
+                .tag("result", "accepted")
+                .description("Submissions accepted through the ingestion queue")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("assignments.ingestion.submissions")
+                .tag("result", "rejected")
+                .description("Submissions refused with 503 because too many inserts were in flight")
+                .register(meterRegistry);
+        this.overflow = Counter.builder("assignments.ingestion.overflow")
+                .description("Accepted submissions left to the sweeper because the projection queue was full")
+                .register(meterRegistry);
+        this.projectionLatency = Timer.builder("assignments.ingestion.projection")
+                .description("Time spent projecting one coalesced batch of ingested submissions")
+                .register(meterRegistry);
+        Gauge.builder("assignments.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("Ingested submissions waiting for gradebook projection")
+                .register(meterRegistry);
+        Gauge.builder("assignments.ingestion.in_flight", inFlight, semaphore -> maxInFlight - semaphore.availablePermits())
+                .description("Submission inserts currently in flight")
+                .register(meterRegistry);
+        
+        for (int i = 1; i <= Math.max(1, workerCount); i++) {
+            Thread worker = new Thread(this::drain, "submission-ingest-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+    
+    /**
+     * Accept a submission with a single insert and queue its gradebook projection.
+     * 
+     * @param courseId Course ID
+     * @param assignmentId Assignment ID
+     * @param request Submission request
+     * @return Receipt of the stored submission
+     * @throws ServiceBusyException if too many submissions are being stored right now
+     */
+    public SubmissionReceiptResponse ingest(String courseId, String assignmentId, SubmissionRequest request) {
+        User currentUser = authService.getCurrentUser();
+        
+        // Verify enrollment (student must be enrolled)
+        enrollmentService.verifyEnrollment(courseId, currentUser.getId());
+        
+        // Verify assignment exists and belongs to course
+        AssignmentRef assignment = assignments.get(assignmentId, id -> assignmentRepository.findById(id).map(AssignmentRef::of))
+                .orElseThrow(() -> new ApiException("ASSIGNMENT_NOT_FOUND", "Assignment not found", 404));
+        
+        if (!assignment.courseId().equals(courseId)) {
+            throw new ApiException("ASSIGNMENT_NOT_FOUND", "Assignment not found in this course", 404);
+        }
+        
+        Submission submission = Submission.builder()
+                .courseId(courseId)
+                .assignmentId(assignmentId)
+                .studentId(currentUser.getId())
+                .textAnswer(request.getTextAnswer())
+                .attachments(request.getAttachments() != null ?
+                        new ArrayList<>(request.getAttachments()) : new ArrayList<>())
+                .projectionPending(true)
+                .build();
+        
+        acquire();
+        try {
+            // Duplicates are caught by the unique (assignment, student) index, not a prior lookup
+            submission = mongoTemplate.insert(submission);
+        } catch (DuplicateKeyException e) {
+            throw new ApiException("SUBMISSION_ALREADY_EXISTS", 
+                    "You have already submitted this assignment", 409);
+        } finally {
+            inFlight.release();
+        }
+        accepted.increment();
+        
+        if (!queue.offer(new PendingProjection(assignmentId, currentUser.getId()))) {
+            overflow.increment();
+        }
+        
+        log.debug("Assignment submission ingested: assignment {} by student {} in course {}", 
+                assignmentId, currentUser.getId(), courseId);
+        
+        return SubmissionReceiptResponse.builder()
+                .submissionId(submission.getId())
+                .courseId(courseId)
+                .assignmentId(assignmentId)
+                .studentId(currentUser.getId())
+                .receivedAt(submission.getSubmittedAt())
+                .build();
+    }
+    
+    private void acquire() {
+        boolean acquired;
+        try {
+            acquired = inFlight.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new ServiceBusyException("SUBMISSIONS_BUSY",
+                    "Too many submissions right now, please retry shortly", retryAfterSeconds);
+        }
+    }
+    
+    /**
+     * Worker loop: wait for a queued submission, take whatever else is queued up to the batch
+     * size, and project the batch.
+     */
+    private void drain() {
+        List<PendingProjection> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                projectionLatency.record(() -> project(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Submissions stay pending and are picked up again by the sweeper
+                log.warn("Projection of {} ingested submissions failed: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    /**
+     * Project a batch of pending submissions: one submission query and one gradebook projection
+     * per assignment, then one bulk write clearing the pending flags of the projected state.
+     */
+    private void project(List<PendingProjection> batch) {
+        Map<String, Set<String>> studentsByAssignment = batch.stream()
+                .collect(Collectors.groupingBy(PendingProjection::assignmentId,
+                        Collectors.mapping(PendingProjection::studentId, Collectors.toSet())));
+        
+        studentsByAssignment.forEach((assignmentId, studentIds) -> {
+            Query query = new Query(Criteria.where("assignmentId").is(assignmentId)
+                    .and("studentId").in(studentIds)
+                    .and("projectionPending").is(true));
+            query.fields().include("studentId", "grade");
+            List<Submission> submissions = mongoTemplate.find(query, Submission.class);
+            if (submissions.isEmpty()) {
+                return;
+            }
+            
+            Optional<AssignmentRef> assignment = assignments.get(assignmentId,
+                    id -> assignmentRepository.findById(id).map(AssignmentRef::of));
+            assignment.ifPresent(ref -> gradebookService.projectSubmissions(ref.courseId(), assignmentId,
+                    ref.title(), ref.points(), submissions));
+            
+            gradebookProjectionService.clearProjectionPending(submissions);
+        });
+    }
+    
+    /**
+     * Re-queue submissions still pending after the sweep age: queue overflow, a failed batch, an
+     * instance that stopped before projecting them, or a submission or grade write whose outbox
+     * entry was projected before the write landed. Pending grades of older submissions may be
+     * projected here and by the outbox dispatcher both, which is harmless.
+     */
+    @Scheduled(fixedDelayString = "${assignments.ingestion.sweep-interval:30000}")
+    public void sweep() {
+        int capacity = Math.min(queue.remainingCapacity(), batchSize);
+        if (capacity == 0) {
+            return;
+        }
+        
+        Query stale = new Query(Criteria.where("projectionPending").is(true)
+                .and("submittedAt").lt(Instant.now().minusMillis(sweepAgeMs)))
+                .with(Sort.by("submittedAt"))
+                .limit(capacity);
+        stale.fields().include("assignmentId", "studentId");
+        
+        try {
+            int requeued = 0;
+            for (Submission submission : mongoTemplate.find(stale, Submission.class)) {
+                if (!queue.offer(new PendingProjection(submission.getAssignmentId(), submission.getStudentId()))) {
+                    break;
+                }
+                requeued++;
+            }
+            if (requeued > 0) {
+                log.info("Re-queued {} ingested submissions still waiting for gradebook projection", requeued);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not sweep pending submissions: {}", e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+    
+    private record PendingProjection(String assignmentId, String studentId) {
+    }
+    
+    /**
+     * Assignment fields needed to accept and project a submission.
+     */
+    private record AssignmentRef(String courseId, String title, Double points) {
+        
+        static AssignmentRef of(Assignment assignment) {
+            return new AssignmentRef(assignment.getCourseId(), assignment.getTitle(), assignment.getPoints());
+        }
+    }
+}
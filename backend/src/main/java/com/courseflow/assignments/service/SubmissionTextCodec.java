@@ -0,0 +1,161 @@
+package com.courseflow.assignments.service;
+
+import com.courseflow.assignments.model.Submission;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Storage codec for submission text answers.
+ * 
+ * Before a submission is written, an answer of at least {@code threshold-bytes} (UTF-8) is
+ * deflated into {@code textAnswerZ} with {@code textAnswerCodec = "deflate"} and the plain
+ * field is cleared; answers that do not shrink stay plain. Documents without a codec are plain
+ * text, so existing submissions stay readable. Answers are only inflated when a full submission
+ * is mapped for a response ({@link #decodeTextAnswer}); list views never read them.
+ */
+@Component
+public class SubmissionTextCodec extends AbstractMongoEventListener<Submission> {
+    
+    public static final String DEFLATE = "deflate";
+    
+    private final boolean enabled;
+    private final int thresholdBytes;
+    private final int level;
+    private final Counter rawBytes;
+    private final Counter storedBytes;
+    private final Counter incompressible;
+    private final DistributionSummary ratio;
+    private final Timer decodeLatency;
+    
+    public SubmissionTextCodec(
+            @Value("${assignments.submissions.text-compression.enabled:true}") boolean enabled,
+            @Value("${assignments.submissions.text-compression.threshold-bytes:4096}") int thresholdBytes,
+            @Value("${assignments.submissions.text-compression.level:6}") int level,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.thresholdBytes = thresholdBytes;
+        this.level = level;
+        
+        this.rawBytes = Counter.builder("submissions.text_answer.bytes")
+                .tag("form", "raw")
+                .baseUnit("bytes")
+                .description("Size of compressed text answers before compression")
+                .register(meterRegistry);
+        this.storedBytes = Counter.builder("submissions.text_answer.bytes")
+                .tag("form", "stored")
+                .baseUnit("bytes")
+                .description("Size of compressed text answers as stored")
+                .register(meterRegistry);
+        this.incompressible = Counter.builder("submissions.text_answer.incompressible")
+                .description("Text answers above the threshold stored plain because compression did not shrink them")
+                .register(meterRegistry);
+        this.ratio = DistributionSummary.builder("submissions.text_answer.compression.ratio")
+                .description("Raw size divided by stored size of compressed text answers")
+                .register(meterRegistry);
+        this.decodeLatency = Timer.builder("submissions.text_answer.decode")
+                .description("Time spent decompressing text answers")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<Submission> event) {
+        encode(event.getSource());
+    }
+    
+    /**
+     * Compress the plain text answer of a submission about to be written, if it is long enough.
+     * A plain answer always replaces an earlier compressed one.
+     */
+    private void encode(Submission submission) {
+        String textAnswer = submission.getTextAnswer();
+        if (textAnswer == null) {
+            return;
+        }
+        submission.setTextAnswerZ(null);
+        submission.setTextAnswerCodec(null);
+        
+        byte[] raw = textAnswer.getBytes(StandardCharsets.UTF_8);
+        if (!enabled || raw.length < thresholdBytes) {
+            return;
+        }
+        
+        byte[] compressed = deflate(raw);
+        if (compressed.length >= raw.length) {
+            incompressible.increment();
+            return;
+        }
+        
+        submission.setTextAnswerZ(compressed);
+        submission.setTextAnswerCodec(DEFLATE);
+        submission.setTextAnswer(null);
+        rawBytes.increment(raw.length);
+        storedBytes.increment(compressed.length);
+        ratio.record((double) raw.length / compressed.length);
+    }
+    
+    /**
+     * Get the text answer of a submission, decompressing it if it is stored compressed.
+     * 
+     * @param submission The submission
+     * @return Text answer, or null if there is none
+     */
+    public String decodeTextAnswer(Submission submission) {
+        String codec = submission.getTextAnswerCodec();
+        if (codec == null || submission.getTextAnswerZ() == null) {
+            return submission.getTextAnswer();
+        }
+        if (!DEFLATE.equals(codec)) {
+            throw new IllegalStateException("Unknown text answer codec '" + codec + "' on submission " + submission.getId());
+        }
+        return decodeLatency.record(() -> inflate(submission.getTextAnswerZ(), submission.getId()));
+    }
+    
+    private byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 2);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+    
+    private static String inflate(byte[] compressed, String submissionId) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(compressed.length * 4);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated text answer on submission " + submissionId);
+                }
+                out.write(buffer, 0, inflated);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt text answer on submission " + submissionId, e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
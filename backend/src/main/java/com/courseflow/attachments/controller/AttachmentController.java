@@ -0,0 +1,96 @@
+package com.courseflow.attachments.controller;
+
+import com.courseflow.attachments.dto.AttachmentResponse;
+import com.courseflow.attachments.model.Attachment;
+import com.courseflow.attachments.service.AttachmentService;
+import com.courseflow.common.dto.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Controller for attachment endpoints.
+ */
+@RestController
+@RequestMapping("/courses/{courseId}/attachments")
+@RequiredArgsConstructor
+@Tag(name = "Attachments", description = "Submission attachment upload and download endpoints")
+public class AttachmentController {
+    
+    private final AttachmentService attachmentService;
+    
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Upload attachment", description = "Upload a file to attach to a submission. User must be enrolled in the course. Identical content is stored once.")
+    public ResponseEntity<ApiResponse<AttachmentResponse>> uploadAttachment(
+            @PathVariable String courseId,
+            @RequestParam("file") MultipartFile file) {
+        AttachmentResponse attachment = attachmentService.upload(courseId, file);
+        return ResponseEntity.ok(ApiResponse.success(attachment, "Attachment uploaded successfully"));
+    }
+    
+    @GetMapping("/{attachmentId}")
+    @Operation(summary = "Download attachment", description = "Download an attachment; supports single byte ranges (Range) and If-None-Match. Only the uploader, instructors and admins can download attachments.")
+    public void downloadAttachment(
+            @PathVariable String courseId,
+            @PathVariable String attachmentId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Attachment attachment = attachmentService.getAttachment(courseId, attachmentId);
+        
+        // Content never changes for an attachment, so its hash is a strong validator
+        String etag = "\"" + attachment.getSha256() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=86400");
+        
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        
+        long length = attachment.getSize();
+        long start = 0;
+        long count = length;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null) {
+            try {
+                // Multiple ranges are answered with the whole content, which RFC 9110 allows
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(length);
+                    count = ranges.get(0).getRangeEnd(length) - start + 1;
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, 
+                            "bytes " + start + "-" + (start + count - 1) + "/" + length);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return;
+            }
+        }
+        
+        response.setContentType(attachment.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(attachment.getFilename(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        response.setContentLengthLong(count);
+        attachmentService.transfer(attachment, start, count, request, response);
+    }
+}
@@ -0,0 +1,25 @@
+package com.courseflow.attachments.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Response DTO for an uploaded attachment. The ID is what goes into a submission's attachments.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentResponse {
+    private String id;
+    private String courseId;
+    private String filename;
+    private String contentType;
+    private long size;
+    private String sha256;
+    private Instant createdAt;
+}
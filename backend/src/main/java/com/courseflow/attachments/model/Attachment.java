@@ -0,0 +1,46 @@
+package com.courseflow.attachments.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Attachment entity: one uploaded file (name, type, owner) pointing to a content-addressed blob.
+ * Uploads of identical content share the blob but keep their own attachment.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "attachments")
+@CompoundIndex(name = "course_uploaded_by_idx", def = "{'courseId': 1, 'uploadedBy': 1}")
+public class Attachment {
+    
+    @Id
+    private String id;
+    
+    private String courseId;
+    
+    private String uploadedBy;
+    
+    private String filename;
+    
+    private String contentType;
+    
+    private long size;
+    
+    /**
+     * Hex SHA-256 of the content; key of the blob in the blob store.
+     */
+    private String sha256;
+    
+    @CreatedDate
+    private Instant createdAt;
+}
@@ -0,0 +1,12 @@
+package com.courseflow.attachments.repository;
+
+import com.courseflow.attachments.model.Attachment;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for Attachment entity operations.
+ */
+@Repository
+public interface AttachmentRepository extends MongoRepository<Attachment, String> {
+}
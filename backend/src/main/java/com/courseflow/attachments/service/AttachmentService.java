@@ -0,0 +1,197 @@
+package com.courseflow.attachments.service;
+
+import com.courseflow.attachments.dto.AttachmentResponse;
+import com.courseflow.attachments.model.Attachment;
+import com.courseflow.attachments.repository.AttachmentRepository;
+import com.courseflow.attachments.storage.BlobStore;
+import com.courseflow.auth.service.AuthService;
+import com.courseflow.common.error.ApiException;
+import com.courseflow.enrollments.service.EnrollmentService;
+import com.courseflow.users.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+/**
+ * Service for uploading and downloading submission attachments.
+ */
+@Slf4j
+@Service
+public class AttachmentService {
+    
+    // Tomcat request attributes for sendfile (see org.apache.catalina.Globals)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final int MAX_FILENAME_LENGTH = 255;
+    
+    private final AttachmentRepository attachmentRepository;
+    private final BlobStore blobStore;
+    private final AuthService authService;
+    private final EnrollmentService enrollmentService;
+    private final Counter stored;
+    private final Counter deduplicated;
+    private final Counter sendfileDownloads;
+    private final Counter streamedDownloads;
+    
+    public AttachmentService(
+            AttachmentRepository attachmentRepository,
+            BlobStore blobStore,
+            AuthService authService,
+            EnrollmentService enrollmentService,
+            MeterRegistry meterRegistry) {
+        this.attachmentRepository = attachmentRepository;
+        this.blobStore = blobStore;
+        this.authService = authService;
+        this.enrollmentService = enrollmentService;
+        this.stored = Counter.builder("attachments.uploads")
+                .tag("result", "stored")
+                .description("Attachment uploads whose content was new")
+                .register(meterRegistry);
+        this.deduplicated = Counter.builder("attachments.uploads")
+                .tag("result", "deduplicated")
+                .description("Attachment uploads whose content was already stored")
+                .register(meterRegistry);
+        this.sendfileDownloads = Counter.builder("attachments.downloads")
+                .tag("transfer", "sendfile")
+                .description("Attachment downloads sent by the servlet container from the file")
+                .register(meterRegistry);
+        this.streamedDownloads = Counter.builder("attachments.downloads")
+                .tag("transfer", "stream")
+                .description("Attachment downloads copied to the response by the application")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Upload an attachment. The user must be enrolled in the course.
+     * The multipart content is read as a stream (the container spools parts to disk) and
+     * stored by content hash; identical content is kept once.
+     * 
+     * @param courseId Course ID
+     * @param file Uploaded file
+     * @return Attachment response
+     */
+    public AttachmentResponse upload(String courseId, MultipartFile file) {
+        User currentUser = authService.getCurrentUser();
+        
+        // Verify enrollment
+        enrollmentService.verifyEnrollment(courseId, currentUser.getId());
+        
+        if (file == null || file.isEmpty()) {
+            throw new ApiException("EMPTY_ATTACHMENT", "Attachment file is empty", 400);
+        }
+        
+        BlobStore.StoredBlob blob;
+        try (InputStream content = file.getInputStream()) {
+            blob = blobStore.put(content);
+        } catch (IOException e) {
+            throw new ApiException("ATTACHMENT_STORAGE_ERROR", "Could not store attachment", 500, e);
+        }
+        (blob.deduplicated() ? deduplicated : stored).increment();
+        
+        Attachment attachment = Attachment.builder()
+                .courseId(courseId)
+                .uploadedBy(currentUser.getId())
+                .filename(sanitizeFilename(file.getOriginalFilename()))
+                .contentType(StringUtils.hasText(file.getContentType()) ? file.getContentType() : "application/octet-stream")
+                .size(blob.size())
+                .sha256(blob.hash())
+                .build();
+        attachment = attachmentRepository.save(attachment);
+        
+        log.info("Attachment uploaded: {} ({} bytes, {}) by user {} in course {}", 
+                attachment.getId(), blob.size(), blob.deduplicated() ? "deduplicated" : "stored",
+                currentUser.getId(), courseId);
+        
+        return mapToResponse(attachment);
+    }
+    
+    /**
+     * Get an attachment for download. Only the uploader, instructors of the course and admins
+     * can download it.
+     * 
+     * @param courseId Course ID
+     * @param attachmentId Attachment ID
+     * @return The attachment
+     */
+    public Attachment getAttachment(String courseId, String attachmentId) {
+        User currentUser = authService.getCurrentUser();
+        
+        Attachment attachment = attachmentRepository.findById(attachmentId)
+                .orElseThrow(() -> new ApiException("ATTACHMENT_NOT_FOUND", "Attachment not found", 404));
+        
+        if (!attachment.getCourseId().equals(courseId)) {
+            throw new ApiException("ATTACHMENT_NOT_FOUND", "Attachment not found in this course", 404);
+        }
+        
+        // Check permission: uploader, instructor/TA of the course or admin
+        boolean isUploader = attachment.getUploadedBy().equals(currentUser.getId());
+        boolean isAdmin = currentUser.getRole() == User.UserRole.ADMIN;
+        
+        if (!isUploader && !isAdmin && !enrollmentService.checkInstructorRole(courseId, currentUser.getId())) {
+            throw new ApiException("INSUFFICIENT_PERMISSIONS", 
+                    "You don't have permission to download this attachment", 403);
+        }
+        
+        return attachment;
+    }
+    
+    /**
+     * Send a byte range of an attachment's content as the response body. Headers (status,
+     * length, type) must be set by the caller. Local blobs are handed to the container's
+     * sendfile support when available, so the bytes never enter the JVM heap; otherwise they
+     * are copied with {@code FileChannel.transferTo} or, for GridFS, in small buffers.
+     * 
+     * @param attachment The attachment
+     * @param start First byte to send
+     * @param count Number of bytes to send
+     */
+    public void transfer(Attachment attachment, long start, long count,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = blobStore.localFile(attachment.getSha256());
+        if (file != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + count);
+            sendfileDownloads.increment();
+            return;
+        }
+        
+        blobStore.copyRange(attachment.getSha256(), start, count, response.getOutputStream());
+        streamedDownloads.increment();
+    }
+    
+    private static String sanitizeFilename(String originalFilename) {
+        String filename = StringUtils.getFilename(StringUtils.cleanPath(
+                originalFilename != null ? originalFilename : ""));
+        if (!StringUtils.hasText(filename)) {
+            return "attachment";
+        }
+        return filename.length() > MAX_FILENAME_LENGTH ? filename.substring(0, MAX_FILENAME_LENGTH) : filename;
+    }
+    
+    /**
+     * Map Attachment entity to AttachmentResponse DTO.
+     */
+    private AttachmentResponse mapToResponse(Attachment attachment) {
+        return AttachmentResponse.builder()
+                .id(attachment.getId())
+                .courseId(attachment.getCourseId())
+                .filename(attachment.getFilename())
+                .contentType(attachment.getContentType())
+                .size(attachment.getSize())
+                .sha256(attachment.getSha256())
+                .createdAt(attachment.getCreatedAt())
+                .build();
+    }
+}
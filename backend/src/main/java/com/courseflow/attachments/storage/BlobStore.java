@@ -0,0 +1,62 @@
+package com.courseflow.attachments.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * Content-addressed blob storage for attachments. Blobs are keyed by the hex SHA-256 of their
+ * content, so uploading the same bytes twice stores them once.
+ * 
+ * The backend is selected with {@code attachments.storage.backend}: {@code local} (default,
+ * {@link LocalBlobStore}) or {@code gridfs} ({@link GridFsBlobStore}).
+ */
+public interface BlobStore {
+    
+    /**
+     * Store content read from a stream, hashing it on the way. The content is spooled to a
+     * temporary file, never held in memory as a whole.
+     * 
+     * @param content The content stream (not closed)
+     * @return Hash and size of the stored blob
+     * @throws IOException if reading or writing fails
+     */
+    StoredBlob put(InputStream content) throws IOException;
+    
+    /**
+     * Check if a blob exists.
+     * 
+     * @param hash Hex SHA-256 of the content
+     */
+    boolean exists(String hash);
+    
+    /**
+     * Get the local file holding a blob, for zero-copy transfer by the servlet container.
+     * 
+     * @param hash Hex SHA-256 of the content
+     * @return The file, or null if the backend does not keep blobs on the local file system
+     */
+    Path localFile(String hash);
+    
+    /**
+     * Copy a byte range of a blob to an output stream.
+     * 
+     * @param hash Hex SHA-256 of the content
+     * @param start First byte to copy
+     * @param count Number of bytes to copy
+     * @param out Destination (not closed)
+     * @throws IOException if reading or writing fails
+     */
+    void copyRange(String hash, long start, long count, OutputStream out) throws IOException;
+    
+    /**
+     * Result of storing a blob.
+     * 
+     * @param hash Hex SHA-256 of the content
+     * @param size Size in bytes
+     * @param deduplicated Whether the blob already existed and nothing new was written
+     */
+    record StoredBlob(String hash, long size, boolean deduplicated) {
+    }
+}
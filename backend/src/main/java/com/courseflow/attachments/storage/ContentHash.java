@@ -0,0 +1,52 @@
+package com.courseflow.attachments.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * SHA-256 content hashing shared by the blob store backends.
+ */
+final class ContentHash {
+    
+    private static final Pattern SHA_256_HEX = Pattern.compile("[0-9a-f]{64}");
+    
+    private ContentHash() {
+    }
+    
+    /**
+     * Copy a stream into a file while hashing it, with a small fixed buffer.
+     * 
+     * @param content The content stream (not closed)
+     * @param target The file to write (replaced if it exists)
+     * @return Hex SHA-256 of the content
+     */
+    static String copy(InputStream content, Path target) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        
+        Files.copy(new DigestInputStream(content, digest), target, StandardCopyOption.REPLACE_EXISTING);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    /**
+     * Reject anything that is not a hex SHA-256, so a hash can safely become a file or blob name.
+     */
+    static String requireValid(String hash) {
+        if (hash == null || !SHA_256_HEX.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid content hash: " + hash);
+        }
+        return hash;
+    }
+}
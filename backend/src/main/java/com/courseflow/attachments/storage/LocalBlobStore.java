@@ -0,0 +1,97 @@
+package com.courseflow.attachments.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Blob store on the local file system. Blobs live at {@code <root>/ab/cd/<hash>}; uploads are
+ * written to {@code <root>/tmp} and renamed into place atomically, so a blob file is either
+ * absent or complete. Reads use {@link FileChannel#transferTo}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "attachments.storage.backend", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+    
+    private final Path root;
+    private final Path tmp;
+    
+    public LocalBlobStore(@Value("${attachments.storage.local.root:./data/attachments}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        this.tmp = this.root.resolve("tmp");
+        Files.createDirectories(tmp);
+        log.info("Attachment blobs stored on the local file system under {}", this.root);
+    }
+    
+    @Override
+    public StoredBlob put(InputStream content) throws IOException {
+        Path temp = Files.createTempFile(tmp, "upload-", ".part");
+        try {
+            String hash = ContentHash.copy(content, temp);
+            long size = Files.size(temp);
+            Path target = path(hash);
+            if (Files.exists(target)) {
+                return new StoredBlob(hash, size, true);
+            }
+            
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // A concurrent upload of the same content won; its file is identical
+                return new StoredBlob(hash, size, true);
+            }
+            return new StoredBlob(hash, size, false);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    @Override
+    public boolean exists(String hash) {
+        return Files.exists(path(hash));
+    }
+    
+    @Override
+    public Path localFile(String hash) {
+        Path file = path(hash);
+        return Files.exists(file) ? file : null;
+    }
+    
+    @Override
+    public void copyRange(String hash, long start, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(path(hash), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+    
+    private Path path(String hash) {
+        ContentHash.requireValid(hash);
+        return root.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+}
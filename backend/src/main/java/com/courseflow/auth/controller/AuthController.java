@@ -56,9 +56,12 @@ public class AuthController {
     }
     
     @PostMapping("/logout")
-    @Operation(summary = "Logout user", description = "Clear refresh token cookie")
-    public ResponseEntity<ApiResponse<Void>> logout(HttpServletResponse response) {
-        authService.logout(response);
+    @Operation(summary = "Logout user", description = "Revoke the refresh token session and clear refresh token cookie")
+    public ResponseEntity<ApiResponse<Void>> logout(
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        String refreshToken = JwtAuthenticationFilter.getRefreshTokenFromCookie(request);
+        authService.logout(refreshToken, response);
         return ResponseEntity.ok(ApiResponse.success(null, "Logged out successfully"));
     }
     
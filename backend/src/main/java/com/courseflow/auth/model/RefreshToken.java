@@ -0,0 +1,48 @@
+package com.courseflow.auth.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Issued refresh token, keyed by its token ID (jti).
+ * Every token rotated from the same sign-in shares a family ID; presenting a token
+ * that was already used revokes the whole family. Tokens issued before tracking (no jti) are
+ * recorded on first use under a digest of the token, without a family. Entries expire with the token.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "refresh_tokens")
+public class RefreshToken {
+    
+    @Id
+    private String id;
+    
+    @Indexed
+    private String familyId;
+    
+    private String userId;
+    
+    private Instant issuedAt;
+    
+    /**
+     * Set when the token is exchanged for a new one; a token can be used only once.
+     */
+    private Instant usedAt;
+    
+    /**
+     * Set when the token's family is revoked (logout or reuse detection).
+     */
+    private Instant revokedAt;
+    
+    @Indexed(name = "expires_at_ttl_idx", expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
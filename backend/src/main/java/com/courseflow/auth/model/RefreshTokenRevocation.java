@@ -0,0 +1,39 @@
+package com.courseflow.auth.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Revoked refresh token family, keyed by family ID.
+ * Kept only as long as access tokens bound to the family can still be valid.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "refresh_token_revocations")
+public class RefreshTokenRevocation {
+    
+    @Id
+    private String familyId;
+    
+    private String userId;
+    
+    /**
+     * Why the family was revoked (LOGOUT or REUSE).
+     */
+    private String reason;
+    
+    @Indexed
+    private Instant revokedAt;
+    
+    @Indexed(name = "expires_at_ttl_idx", expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
@@ -0,0 +1,12 @@
+package com.courseflow.auth.repository;
+
+import com.courseflow.auth.model.RefreshToken;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for RefreshToken entity operations.
+ */
+@Repository
+public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String> {
+}
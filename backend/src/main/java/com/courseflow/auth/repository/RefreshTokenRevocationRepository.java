@@ -0,0 +1,23 @@
+package com.courseflow.auth.repository;
+
+import com.courseflow.auth.model.RefreshTokenRevocation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository for RefreshTokenRevocation entity operations.
+ */
+@Repository
+public interface RefreshTokenRevocationRepository extends MongoRepository<RefreshTokenRevocation, String> {
+    
+    /**
+     * Find families revoked after the given instant.
+     * 
+     * @param since Lower bound (exclusive) on the revocation time
+     * @return Revocations recorded after the instant
+     */
+    List<RefreshTokenRevocation> findByRevokedAtAfter(Instant since);
+}
@@ -4,25 +4,28 @@ import com.courseflow.auth.dto.AuthResponse;
 import com.courseflow.auth.dto.SignInRequest;
 import com.courseflow.auth.dto.SignUpRequest;
 import com.courseflow.common.error.ApiException;
+import com.courseflow.enrollments.model.Enrollment;
+import com.courseflow.enrollments.service.EnrollmentService;
+import com.courseflow.security.CourseRoleClaims;
 import com.courseflow.security.JwtAuthenticationFilter;
 import com.courseflow.security.JwtTokenProvider;
+import com.courseflow.security.PasswordHashingExecutor;
 import com.courseflow.security.SecurityUserDetails;
+import com.courseflow.security.VerifiedToken;
 import com.courseflow.users.model.User;
 import com.courseflow.users.repository.UserRepository;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Service for handling authentication operations.
  */
@@ -31,10 +34,25 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class AuthService {
     
+    /**
+     * BCrypt hash of a random password, verified instead of a real hash for unknown emails.
+     */
+    private static final String UNKNOWN_USER_PASSWORD_HASH =
+            "$2a$10$ltNee3.bfp15rqhmf8AllO3k54JRFLSc4xai9MLpzPsXPozq84poC";
+    
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider tokenProvider;
-    private final AuthenticationManager authenticationManager;
+    private final CurrentUserContext currentUserContext;
+    private final EnrollmentService enrollmentService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final RefreshTokenService refreshTokenService;
+    
+    @Value("${jwt.course-roles.enabled:true}")
+    private boolean embedCourseRoles;
+    
+    @Value("${jwt.course-roles.max-courses:50}")
+    private int maxEmbeddedCourses;
     
     /**
      * Register a new user.
@@ -50,25 +68,33 @@ public class AuthService {
                 throw new ApiException("EMAIL_ALREADY_EXISTS", "Email is already registered", 409);
             }
             
+            // Hash on the bounded hashing executor (fails fast with 503 when saturated)
+            String passwordHash = passwordHashingExecutor.execute(
+                    () -> passwordEncoder.encode(request.getPassword()));
+            
             // Create new user
             // Note: createdAt and updatedAt are automatically set by MongoDB auditing (@CreatedDate, @LastModifiedDate)
             User user = User.builder()
                     .name(request.getName())
                     .email(request.getEmail())
-                    .passwordHash(passwordEncoder.encode(request.getPassword()))
+                    .passwordHash(passwordHash)
                     .role(request.getRole() != null ? request.getRole() : User.UserRole.STUDENT)
                     .build();
             
             user = userRepository.save(user);
             
-            // Generate tokens
+            // Generate tokens for a new refresh token family (session)
+            String familyId = refreshTokenService.newFamilyId();
             String accessToken = tokenProvider.generateAccessToken(
-                    user.getId(), 
-                    user.getEmail(), 
-                    user.getRole().name()
+                    user.getId(),
+                    user.getEmail(),
+                    user.getRole().name(),
+                    tokenVersionOf(user),
+                    courseRoleClaimsFor(user),
+                    familyId
             );
             
-            String refreshToken = tokenProvider.generateRefreshToken(user.getId(), user.getEmail());
+            String refreshToken = refreshTokenService.issue(user.getId(), user.getEmail(), familyId);
             
             // Set refresh token in httpOnly cookie
             JwtAuthenticationFilter.setRefreshTokenCookie(response, refreshToken);
@@ -94,29 +120,34 @@ public class AuthService {
      */
     public AuthResponse signIn(SignInRequest request, HttpServletResponse response) {
         try {
-            // Authenticate user
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getEmail(),
-                            request.getPassword()
-                    )
-            );
+            // Load the user on the request thread; only the BCrypt check runs on the bounded hashing executor
+            User user = userRepository.findByEmail(request.getEmail()).orElse(null);
+            boolean knownUser = user != null && user.getPasswordHash() != null;
+            // Unknown users are checked against a fixed hash, so response times do not reveal accounts
+            String passwordHash = knownUser ? user.getPasswordHash() : UNKNOWN_USER_PASSWORD_HASH;
+            boolean matches = passwordHashingExecutor.execute(
+                    () -> passwordEncoder.matches(request.getPassword(), passwordHash));
             
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (!knownUser || !matches) {
+                throw new ApiException("INVALID_CREDENTIALS", "Invalid email or password", 401);
+            }
             
-            SecurityUserDetails userDetails = (SecurityUserDetails) authentication.getPrincipal();
-            String userId = userDetails.getId();
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new ApiException("USER_NOT_FOUND", "User not found"));
+            SecurityUserDetails userDetails = new SecurityUserDetails(user);
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
             
-            // Generate tokens
+            // Generate tokens for a new refresh token family (session)
+            String familyId = refreshTokenService.newFamilyId();
             String accessToken = tokenProvider.generateAccessToken(
                     user.getId(),
                     user.getEmail(),
-                    user.getRole().name()
+                    user.getRole().name(),
+                    tokenVersionOf(user),
+                    courseRoleClaimsFor(user),
+                    familyId
             );
             
-            String refreshToken = tokenProvider.generateRefreshToken(user.getId(), user.getEmail());
+            String refreshToken = refreshTokenService.issue(user.getId(), user.getEmail(), familyId);
             
             // Set refresh token in httpOnly cookie
             JwtAuthenticationFilter.setRefreshTokenCookie(response, refreshToken);
@@ -125,18 +156,6 @@ public class AuthService {
             
             return buildAuthResponse(accessToken, user);
             
-        } catch (BadCredentialsException e) {
-            throw new ApiException("INVALID_CREDENTIALS", "Invalid email or password", 401);
-        } catch (InternalAuthenticationServiceException e) {
-            // Unwrap the underlying exception
-            Throwable cause = e.getCause();
-            if (cause instanceof UsernameNotFoundException) {
-                throw new ApiException("INVALID_CREDENTIALS", "Invalid email or password", 401);
-            }
-            log.error("Authentication service error for email: {}", request.getEmail(), e);
-            throw new ApiException("INVALID_CREDENTIALS", "Invalid email or password", 401);
-        } catch (AuthenticationException e) {
-            throw new ApiException("INVALID_CREDENTIALS", "Invalid email or password", 401);
         } catch (ApiException e) {
             // Re-throw API exceptions as-is
             throw e;
@@ -154,27 +173,37 @@ public class AuthService {
      * @return Auth response with new access token
      */
     public AuthResponse refresh(String refreshToken, HttpServletResponse response) {
-        if (refreshToken == null || !tokenProvider.validateToken(refreshToken)) {
+        VerifiedToken verified = refreshToken != null 
+                ? tokenProvider.verify(refreshToken).orElse(null) 
+                : null;
+        
+        if (verified == null) {
             throw new ApiException("INVALID_REFRESH_TOKEN", "Invalid or expired refresh token", 401);
         }
         
-        if (!tokenProvider.isRefreshToken(refreshToken)) {
+        if (!verified.isRefreshToken()) {
             throw new ApiException("INVALID_TOKEN_TYPE", "Token is not a refresh token", 400);
         }
         
-        String userId = tokenProvider.getUserIdFromToken(refreshToken);
+        String userId = verified.getUserId();
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ApiException("USER_NOT_FOUND", "User not found"));
         
+        // Mark the presented token used; reusing an already exchanged token revokes its family
+        String familyId = refreshTokenService.consume(verified, refreshToken);
+        
         // Generate new tokens
         String accessToken = tokenProvider.generateAccessToken(
                 user.getId(),
                 user.getEmail(),
-                user.getRole().name()
+                user.getRole().name(),
+                tokenVersionOf(user),
+                courseRoleClaimsFor(user),
+                familyId
         );
         
-        // Optionally rotate refresh token for better security
-        String newRefreshToken = tokenProvider.generateRefreshToken(user.getId(), user.getEmail());
+        // Rotate refresh token within the same family
+        String newRefreshToken = refreshTokenService.issue(user.getId(), user.getEmail(), familyId);
         
         // Set new refresh token in httpOnly cookie
         JwtAuthenticationFilter.setRefreshTokenCookie(response, newRefreshToken);
@@ -183,16 +212,22 @@ public class AuthService {
     }
     
     /**
-     * Logout user by clearing refresh token cookie.
+     * Logout user by revoking the refresh token family and clearing the refresh token cookie.
+     * Access tokens issued to the same session stop being accepted as well.
      * 
+     * @param refreshToken Refresh token from cookie (may be null)
      * @param response HTTP response to clear refresh token cookie
      */
-    public void logout(HttpServletResponse response) {
+    public void logout(String refreshToken, HttpServletResponse response) {
+        if (refreshToken != null) {
+            tokenProvider.verify(refreshToken).ifPresent(refreshTokenService::revoke);
+        }
         JwtAuthenticationFilter.deleteRefreshTokenCookie(response);
     }
     
     /**
      * Get current authenticated user.
+     * The user document is loaded once per request and reused by later callers.
      * 
      * @return User entity
      */
@@ -211,8 +246,37 @@ public class AuthService {
         
         SecurityUserDetails userDetails = (SecurityUserDetails) principal;
         String userId = userDetails.getId();
-        return userRepository.findById(userId)
-                .orElseThrow(() -> new ApiException("USER_NOT_FOUND", "User not found"));
+        return currentUserContext.resolve(userId, id -> userRepository.findById(id)
+                .orElseThrow(() -> new ApiException("USER_NOT_FOUND", "User not found")));
+    }
+    
+    /**
+     * Token version for a user; documents created before versioning have none.
+     */
+    private long tokenVersionOf(User user) {
+        return user.getTokenVersion() != null ? user.getTokenVersion() : 0L;
+    }
+    
+    /**
+     * Build the course role claims to embed in a user's access token.
+     * The enrollment version comes from the already-loaded user, so an enrollment change that
+     * races with token issuance leaves a stale stamp and falls back to a lookup.
+     * 
+     * @param user The user the token is issued for
+     * @return Course role claims, or null if disabled or the user has too many courses
+     */
+    private CourseRoleClaims courseRoleClaimsFor(User user) {
+        if (!embedCourseRoles) {
+            return null;
+        }
+        
+        List<Enrollment> enrollments = enrollmentService.getUserEnrollments(user.getId());
+        if (enrollments.size() > maxEmbeddedCourses) {
+            return null;
+        }
+        
+        long enrollmentVersion = user.getEnrollmentVersion() != null ? user.getEnrollmentVersion() : 0L;
+        return CourseRoleClaims.fromEnrollments(enrollments, enrollmentVersion);
     }
     
     /**
@@ -0,0 +1,83 @@
+package com.courseflow.auth.service;
+
+import com.courseflow.users.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Request-scoped memo of the authenticated user.
+ * The user document is loaded once per HTTP request and shared by the security aspect,
+ * controllers and services that all ask for the current user.
+ */
+@Slf4j
+@Component
+public class CurrentUserContext {
+    
+    private static final String USER_ATTRIBUTE = CurrentUserContext.class.getName() + ".user";
+    private static final String REUSE_COUNT_ATTRIBUTE = CurrentUserContext.class.getName() + ".reuseCount";
+    
+    private final Counter loads;
+    private final Counter reuses;
+    private final DistributionSummary reusesPerRequest;
+    
+    public CurrentUserContext(MeterRegistry meterRegistry) {
+        this.loads = Counter.builder("auth.current_user.lookups")
+                .tag("result", "loaded")
+                .description("Current-user lookups that read the user document")
+                .register(meterRegistry);
+        this.reuses = Counter.builder("auth.current_user.lookups")
+                .tag("result", "reused")
+                .description("Current-user lookups answered from the request-scoped memo")
+                .register(meterRegistry);
+        this.reusesPerRequest = DistributionSummary.builder("auth.current_user.reuses_per_request")
+                .description("User document reads saved per request")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Resolve the current user, loading it at most once per request.
+     * Outside of a request (e.g. background jobs) the loader is always called.
+     * 
+     * @param userId The authenticated user ID
+     * @param loader Loads the user document by ID
+     * @return User entity
+     */
+    public User resolve(String userId, Function<String, User> loader) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return loader.apply(userId);
+        }
+        
+        User cached = (User) attributes.getAttribute(USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached != null && userId.equals(cached.getId())) {
+            AtomicInteger reuseCount = (AtomicInteger) attributes.getAttribute(
+                    REUSE_COUNT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (reuseCount != null) {
+                reuseCount.incrementAndGet();
+            }
+            reuses.increment();
+            return cached;
+        }
+        
+        User user = loader.apply(userId);
+        loads.increment();
+        
+        AtomicInteger reuseCount = new AtomicInteger();
+        attributes.setAttribute(USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        attributes.setAttribute(REUSE_COUNT_ATTRIBUTE, reuseCount, RequestAttributes.SCOPE_REQUEST);
+        attributes.registerDestructionCallback(REUSE_COUNT_ATTRIBUTE, () -> {
+            reusesPerRequest.record(reuseCount.get());
+            log.debug("Current user {} loaded once, reused {} times in this request", userId, reuseCount.get());
+        }, RequestAttributes.SCOPE_REQUEST);
+        
+        return user;
+    }
+}
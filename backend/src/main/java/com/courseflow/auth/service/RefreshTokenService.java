@@ -0,0 +1,275 @@
+package com.courseflow.auth.service;
+
+import com.courseflow.auth.model.RefreshToken;
+import com.courseflow.auth.model.RefreshTokenRevocation;
+import com.courseflow.auth.repository.RefreshTokenRepository;
+import com.courseflow.auth.repository.RefreshTokenRevocationRepository;
+import com.courseflow.common.error.ApiException;
+import com.courseflow.security.JwtTokenProvider;
+import com.courseflow.security.RevocationBloomFilter;
+import com.courseflow.security.VerifiedToken;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Server-side store of issued refresh tokens, grouped into families (one per sign-in).
+ * 
+ * Each refresh token can be exchanged exactly once. Presenting a token that was already
+ * exchanged means it leaked, so the whole family is revoked. Logout revokes the family too.
+ * Access tokens carry their family ID; the per-request "is this session revoked?" check is
+ * answered by an in-memory Bloom filter and only confirmed against MongoDB on a possible hit.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+    
+    private static final String REASON_LOGOUT = "LOGOUT";
+    private static final String REASON_REUSE = "REUSE";
+    private static final String UNTRACKED_ID_PREFIX = "untracked:";
+    
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenRevocationRepository revocationRepository;
+    private final MongoTemplate mongoTemplate;
+    private final JwtTokenProvider tokenProvider;
+    private final RevocationBloomFilter revokedFamilies;
+    
+    private final Counter filterNegatives;
+    private final Counter confirmedRevocations;
+    private final Counter falsePositives;
+    private final Counter reuseDetected;
+    
+    private volatile Instant lastRevocationPoll;
+    
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            RefreshTokenRevocationRepository revocationRepository,
+            MongoTemplate mongoTemplate,
+            JwtTokenProvider tokenProvider,
+            MeterRegistry meterRegistry,
+            @Value("${auth.refresh-tokens.revocation-filter.expected-insertions:100000}") int expectedInsertions,
+            @Value("${auth.refresh-tokens.revocation-filter.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revocationRepository = revocationRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.tokenProvider = tokenProvider;
+        // One generation spans an access token lifetime; two generations cover every live access token
+        this.revokedFamilies = new RevocationBloomFilter(
+                expectedInsertions, falsePositiveRate, tokenProvider.getAccessTokenTtl());
+        this.lastRevocationPoll = Instant.now().minusMillis(tokenProvider.getAccessTokenTtl());
+        
+        this.filterNegatives = Counter.builder("auth.refresh_tokens.revocation_checks")
+                .tag("result", "filtered")
+                .description("Revocation checks answered by the in-memory filter")
+                .register(meterRegistry);
+        this.confirmedRevocations = Counter.builder("auth.refresh_tokens.revocation_checks")
+                .tag("result", "revoked")
+                .description("Revocation checks confirmed as revoked by the store")
+                .register(meterRegistry);
+        this.falsePositives = Counter.builder("auth.refresh_tokens.revocation_checks")
+                .tag("result", "false_positive")
+                .description("Filter hits the store reported as not revoked")
+                .register(meterRegistry);
+        this.reuseDetected = Counter.builder("auth.refresh_tokens.reuse_detected")
+                .description("Refresh tokens presented after they were already exchanged")
+                .register(meterRegistry);
+        
+        log.info("Revocation filter sized at {} bits per generation with {} hashes",
+                revokedFamilies.getBitCount(), revokedFamilies.getHashCount());
+    }
+    
+    /**
+     * Start a new refresh token family (one per sign-in).
+     * 
+     * @return New family ID
+     */
+    public String newFamilyId() {
+        return UUID.randomUUID().toString();
+    }
+    
+    /**
+     * Issue and record a refresh token in a family.
+     * 
+     * @param userId The user ID
+     * @param email The user email
+     * @param familyId The family the token belongs to
+     * @return JWT refresh token string
+     */
+    public String issue(String userId, String email, String familyId) {
+        String tokenId = UUID.randomUUID().toString();
+        String token = tokenProvider.generateRefreshToken(userId, email, tokenId, familyId);
+        
+        // Computed after signing, so the stored entry never expires before the token itself
+        Instant now = Instant.now();
+        refreshTokenRepository.insert(RefreshToken.builder()
+                .id(tokenId)
+                .familyId(familyId)
+                .userId(userId)
+                .issuedAt(now)
+                .expiresAt(now.plusMillis(tokenProvider.getRefreshTokenTtl()))
+                .build());
+        return token;
+    }
+    
+    /**
+     * Exchange a verified refresh token: mark it used and return the family to continue.
+     * A token that was already used revokes its family.
+     * 
+     * @param token Verified refresh token
+     * @param rawToken The refresh token as presented (identifies tokens issued before tracking)
+     * @return Family ID for the replacement tokens
+     * @throws ApiException 401 if the token is unknown, already used or revoked
+     */
+    public String consume(VerifiedToken token, String rawToken) {
+        String tokenId = token.getTokenId();
+        String familyId = token.getFamilyId();
+        
+        // Tokens issued before tracking have no ID; they are honoured once and moved into a new family
+        if (tokenId == null || familyId == null) {
+            consumeUntracked(token, rawToken);
+            return newFamilyId();
+        }
+        
+        Query unused = new Query(Criteria.where("_id").is(tokenId)
+                .and("usedAt").is(null)
+                .and("revokedAt").is(null));
+        RefreshToken consumed = mongoTemplate.findAndModify(
+                unused,
+                new Update().set("usedAt", Instant.now()),
+                FindAndModifyOptions.options().returnNew(false),
+                RefreshToken.class);
+        
+        if (consumed == null) {
+            RefreshToken existing = refreshTokenRepository.findById(tokenId).orElse(null);
+            if (existing != null && existing.getUsedAt() != null && existing.getRevokedAt() == null) {
+                reuseDetected.increment();
+                log.warn("Refresh token reuse detected for user {}, revoking family {}", existing.getUserId(), familyId);
+                revokeFamily(familyId, existing.getUserId(), REASON_REUSE);
+            }
+            throw new ApiException("INVALID_REFRESH_TOKEN", "Invalid or expired refresh token", 401);
+        }
+        
+        // Closes the race with a concurrent logout of the same family
+        if (isFamilyRevoked(familyId)) {
+            throw new ApiException("INVALID_REFRESH_TOKEN", "Invalid or expired refresh token", 401);
+        }
+        
+        return familyId;
+    }
+    
+    /**
+     * Mark a token issued before tracking used, keyed by a digest of the token: the insert of the
+     * marker succeeds only once, so a replayed token is rejected. The marker expires with the token.
+     */
+    private void consumeUntracked(VerifiedToken token, String rawToken) {
+        try {
+            refreshTokenRepository.insert(RefreshToken.builder()
+                    .id(UNTRACKED_ID_PREFIX + digest(rawToken))
+                    .userId(token.getUserId())
+                    .usedAt(Instant.now())
+                    .expiresAt(token.getExpiresAt())
+                    .build());
+        } catch (DuplicateKeyException e) {
+            reuseDetected.increment();
+            log.warn("Untracked refresh token reuse detected for user {}", token.getUserId());
+            throw new ApiException("INVALID_REFRESH_TOKEN", "Invalid or expired refresh token", 401);
+        }
+    }
+    
+    /**
+     * Revoke the family of a refresh token (logout). Invalid or untracked tokens are ignored.
+     * 
+     * @param token Verified refresh token
+     */
+    public void revoke(VerifiedToken token) {
+        if (token.isRefreshToken() && token.getFamilyId() != null) {
+            revokeFamily(token.getFamilyId(), token.getUserId(), REASON_LOGOUT);
+        }
+    }
+    
+    /**
+     * Check whether the session an access token belongs to has been revoked.
+     * 
+     * @param familyId Refresh token family ID from the access token
+     * @return true if the family was revoked
+     */
+    public boolean isFamilyRevoked(String familyId) {
+        if (!revokedFamilies.mightContain(familyId)) {
+            filterNegatives.increment();
+            return false;
+        }
+        
+        if (revocationRepository.existsById(familyId)) {
+            confirmedRevocations.increment();
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+    
+    /**
+     * Pick up families revoked by other instances since the last poll.
+     */
+    @Scheduled(fixedDelayString = "${auth.refresh-tokens.revocation-poll-interval:10000}")
+    public void pollRevocations() {
+        Instant pollStartedAt = Instant.now();
+        try {
+            // Overlap with the previous poll so revocations committed during it are not missed
+            for (RefreshTokenRevocation revocation
+                    : revocationRepository.findByRevokedAtAfter(lastRevocationPoll.minusSeconds(5))) {
+                revokedFamilies.add(revocation.getFamilyId());
+            }
+            lastRevocationPoll = pollStartedAt;
+        } catch (DataAccessException e) {
+            log.warn("Could not poll refresh token revocations: {}", e.getMessage());
+        }
+    }
+    
+    private void revokeFamily(String familyId, String userId, String reason) {
+        Instant now = Instant.now();
+        
+        // Record the revocation first so access tokens of the family are rejected immediately
+        revocationRepository.save(RefreshTokenRevocation.builder()
+                .familyId(familyId)
+                .userId(userId)
+                .reason(reason)
+                .revokedAt(now)
+                .expiresAt(now.plusMillis(tokenProvider.getAccessTokenTtl()))
+                .build());
+        revokedFamilies.add(familyId);
+        
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("familyId").is(familyId).and("revokedAt").is(null)),
+                new Update().set("revokedAt", now),
+                RefreshToken.class);
+        
+        log.info("Revoked refresh token family {} for user {} ({})", familyId, userId, reason);
+    }
+    
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.courseflow.calendar.controller;
+
+import com.courseflow.calendar.dto.CalendarFeedResponse;
+import com.courseflow.calendar.service.CalendarFeedService;
+import com.courseflow.common.dto.ApiResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+/**
+ * Controller for calendar feed endpoints.
+ */
+@RestController
+@RequestMapping("/calendar")
+@RequiredArgsConstructor
+@Tag(name = "Calendar", description = "iCalendar feed endpoints")
+public class CalendarController {
+    
+    private final CalendarFeedService calendarFeedService;
+    
+    @PostMapping("/feed-token")
+    @Operation(summary = "Issue calendar feed token", description = "Issue a new iCalendar feed URL for the current user. Any previous feed URL stops working.")
+    public ResponseEntity<ApiResponse<CalendarFeedResponse>> rotateFeedToken() {
+        CalendarFeedResponse feed = calendarFeedService.rotateFeedToken();
+        return ResponseEntity.ok(ApiResponse.success(feed, "Calendar feed created successfully"));
+    }
+    
+    @DeleteMapping("/feed-token")
+    @Operation(summary = "Revoke calendar feed token", description = "Disable the current user's iCalendar feed URL")
+    public ResponseEntity<ApiResponse<Void>> revokeFeedToken() {
+        calendarFeedService.revokeFeedToken();
+        return ResponseEntity.ok(ApiResponse.success(null, "Calendar feed revoked successfully"));
+    }
+    
+    @GetMapping("/feed/{token}.ics")
+    @Operation(summary = "Get calendar feed", description = "iCalendar feed of the due dates in the token owner's courses. Authenticated by the token in the URL; supports If-None-Match.")
+    public void getFeed(
+            @PathVariable String token,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        CalendarFeedService.Feed feed = calendarFeedService.openFeed(token);
+        
+        // Clients must revalidate on every poll, which is a 304 while nothing changed
+        response.setHeader(HttpHeaders.ETAG, feed.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(feed.etag()) || ifNoneMatch.trim().equals("*"))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        
+        response.setContentType("text/calendar;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"courseflow.ics\"");
+        calendarFeedService.writeFeed(feed, response.getOutputStream());
+    }
+}
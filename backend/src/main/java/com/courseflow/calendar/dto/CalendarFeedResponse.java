@@ -0,0 +1,19 @@
+package com.courseflow.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO for a newly issued calendar feed token.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarFeedResponse {
+    
+    private String token;
+    private String path; // feed path relative to the API root, e.g. "/calendar/feed/<token>.ics"
+}
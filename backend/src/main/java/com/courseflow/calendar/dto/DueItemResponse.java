@@ -0,0 +1,30 @@
+package com.courseflow.calendar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Response DTO for a dated assignment or module item.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DueItemResponse {
+    
+    private String type; // "ASSIGNMENT" or "MODULE_ITEM"
+    private String itemId;
+    private String moduleId;
+    private String courseId;
+    private String courseTitle;
+    private String title;
+    private String url;
+    private Instant dueDate;
+    private Double points;
+    private Boolean published;
+    private Boolean submitted; // assignments only; null for module items
+}
@@ -0,0 +1,100 @@
+package com.courseflow.calendar.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Dated course item (assignment or module item) in the per-course due-item index.
+ * Maintained by AssignmentService and ModuleService on every mutation, so "what is due between
+ * two dates in the user's courses" is one index range scan instead of a fan-out over courses.
+ * Items without a due date are not indexed.
+ * 
+ * The ID is derived from the source ({@code A:<assignmentId>} or {@code M:<itemId>}), which makes
+ * every write an idempotent upsert.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "due_items")
+@CompoundIndex(name = "course_due_date_idx", def = "{'courseId': 1, 'dueDate': 1}")
+@CompoundIndex(name = "course_published_due_date_idx", def = "{'courseId': 1, 'published': 1, 'dueDate': 1}")
+@CompoundIndex(name = "course_type_idx", def = "{'courseId': 1, 'type': 1}")
+public class DueItem {
+    
+    @Id
+    private String id;
+    
+    private String courseId;
+    
+    private ItemType type;
+    
+    /**
+     * Assignment ID or module item ID.
+     */
+    private String itemId;
+    
+    /**
+     * Module containing the item; null for assignments.
+     */
+    private String moduleId;
+    
+    private String title;
+    
+    /**
+     * Link of a module item; null for assignments.
+     */
+    private String url;
+    
+    private Instant dueDate;
+    
+    private Double points;
+    
+    private Boolean published;
+    
+    /**
+     * Time the entry last changed; unchanged items keep their timestamp across module tree saves.
+     */
+    private Instant updatedAt;
+    
+    public static String assignmentKey(String assignmentId) {
+        return "A:" + assignmentId;
+    }
+    
+    public static String moduleItemKey(String itemId) {
+        return "M:" + itemId;
+    }
+    
+    /**
+     * Check whether two entries describe the same item with the same content, ignoring updatedAt.
+     */
+    public boolean sameContent(DueItem other) {
+        return other != null
+                && Objects.equals(id, other.id)
+                && Objects.equals(courseId, other.courseId)
+                && type == other.type
+                && Objects.equals(itemId, other.itemId)
+                && Objects.equals(moduleId, other.moduleId)
+                && Objects.equals(title, other.title)
+                && Objects.equals(url, other.url)
+                && Objects.equals(dueDate, other.dueDate)
+                && Objects.equals(points, other.points)
+                && Objects.equals(published, other.published);
+    }
+    
+    /**
+     * Due item type enumeration.
+     */
+    public enum ItemType {
+        ASSIGNMENT,
+        MODULE_ITEM
+    }
+}
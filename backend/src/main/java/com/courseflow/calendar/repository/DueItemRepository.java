@@ -0,0 +1,23 @@
+package com.courseflow.calendar.repository;
+
+import com.courseflow.calendar.model.DueItem;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for DueItem entity operations.
+ */
+@Repository
+public interface DueItemRepository extends MongoRepository<DueItem, String> {
+    
+    /**
+     * Find the due items of one type in a course.
+     * 
+     * @param courseId The course ID
+     * @param type The item type
+     * @return List of due items
+     */
+    List<DueItem> findByCourseIdAndType(String courseId, DueItem.ItemType type);
+}
@@ -0,0 +1,261 @@
+package com.courseflow.calendar.service;
+
+import com.courseflow.auth.service.AuthService;
+import com.courseflow.calendar.dto.CalendarFeedResponse;
+import com.courseflow.calendar.model.DueItem;
+import com.courseflow.common.error.ApiException;
+import com.courseflow.common.util.ICalendarUtil;
+import com.courseflow.courses.model.Course;
+import com.courseflow.enrollments.model.Enrollment;
+import com.courseflow.enrollments.service.EnrollmentService;
+import com.courseflow.users.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Serves per-user iCalendar feeds of assignment and module-item due dates, authenticated by an
+ * unguessable token in the feed URL (calendar apps cannot send bearer tokens).
+ * 
+ * Feeds are read from the due-item index. Every request first derives a validator from the
+ * user's courses and the count and latest updatedAt of the feed's items (one indexed aggregation),
+ * so unchanged feeds are answered with 304 without reading any item; otherwise the items are
+ * streamed from a cursor straight into the response.
+ */
+@Slf4j
+@Service
+public class CalendarFeedService {
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int TOKEN_BYTES = 32;
+    
+    private final AuthService authService;
+    private final EnrollmentService enrollmentService;
+    private final DueItemService dueItemService;
+    private final MongoTemplate mongoTemplate;
+    private final Duration pastWindow;
+    private final long refreshIntervalMinutes;
+    private final int batchSize;
+    
+    public CalendarFeedService(
+            AuthService authService,
+            EnrollmentService enrollmentService,
+            DueItemService dueItemService,
+            MongoTemplate mongoTemplate,
+            @Value("${calendar.feed.past-days:90}") long pastDays,
+            @Value("${calendar.feed.refresh-interval-minutes:15}") long refreshIntervalMinutes,
+            @Value("${calendar.feed.batch-size:500}") int batchSize) {
+        this.authService = authService;
+        this.enrollmentService = enrollmentService;
+        this.dueItemService = dueItemService;
+        this.mongoTemplate = mongoTemplate;
+        this.pastWindow = Duration.ofDays(pastDays);
+        this.refreshIntervalMinutes = refreshIntervalMinutes;
+        this.batchSize = batchSize;
+    }
+    
+    /**
+     * Issue a new calendar feed token for the current user, replacing any previous one.
+     * 
+     * @return The token and feed path; the token is not retrievable later
+     */
+    public CalendarFeedResponse rotateFeedToken() {
+        User currentUser = authService.getCurrentUser();
+        byte[] bytes = new byte[TOKEN_BYTES];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(currentUser.getId())),
+                new Update().set("calendarFeedTokenHash", digest(token)), User.class);
+        log.info("Calendar feed token issued for user {}", currentUser.getId());
+        
+        return CalendarFeedResponse.builder()
+                .token(token)
+                .path("/calendar/feed/" + token + ".ics")
+                .build();
+    }
+    
+    /**
+     * Revoke the current user's calendar feed token.
+     */
+    public void revokeFeedToken() {
+        User currentUser = authService.getCurrentUser();
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(currentUser.getId())),
+                new Update().unset("calendarFeedTokenHash"), User.class);
+        log.info("Calendar feed token revoked for user {}", currentUser.getId());
+    }
+    
+    /**
+     * Resolve a feed token and compute the feed's validator, without reading the feed's items.
+     * 
+     * @param token The feed token from the URL
+     * @return The feed to check against If-None-Match and write
+     */
+    public Feed openFeed(String token) {
+        Query userQuery = Query.query(Criteria.where("calendarFeedTokenHash").is(digest(token)));
+        userQuery.fields().include("_id");
+        User user = mongoTemplate.findOne(userQuery, User.class);
+        if (user == null) {
+            throw new ApiException("FEED_NOT_FOUND", "Calendar feed not found", 404);
+        }
+        
+        Map<String, Enrollment.CourseRole> roles = enrollmentService.getUserEnrollments(user.getId()).stream()
+                .collect(Collectors.toMap(Enrollment::getCourseId,
+                        enrollment -> enrollment.getCourseRole() != null
+                                ? enrollment.getCourseRole()
+                                : Enrollment.CourseRole.STUDENT,
+                        (a, b) -> a));
+        
+        Map<String, Course> courses = new HashMap<>();
+        if (!roles.isEmpty()) {
+            Query coursesQuery = new Query(Criteria.where("_id").in(roles.keySet()));
+            coursesQuery.fields().include("title", "code", "updatedAt");
+            mongoTemplate.find(coursesQuery, Course.class).forEach(course -> courses.put(course.getId(), course));
+        }
+        
+        // Day-aligned, so the window and with it the validator only move once a day
+        Instant from = Instant.now().truncatedTo(ChronoUnit.DAYS).minus(pastWindow);
+        Criteria criteria = dueItemService.visibleTo(roles, from, null);
+        
+        long count = 0;
+        Date lastModified = null;
+        if (criteria != null) {
+            Aggregation summary = Aggregation.newAggregation(
+                    Aggregation.match(criteria),
+                    Aggregation.group().count().as("count").max("updatedAt").as("lastModified"));
+            Document result = mongoTemplate.aggregate(summary, DueItem.class, Document.class).getUniqueMappedResult();
+            if (result != null) {
+                count = ((Number) result.get("count")).longValue();
+                lastModified = result.getDate("lastModified");
+            }
+        }
+        
+        // Everything the rendered feed depends on: courses and roles, course names, and the items
+        StringBuilder state = new StringBuilder()
+                .append(from.toEpochMilli()).append('|')
+                .append(count).append('|')
+                .append(lastModified != null ? lastModified.getTime() : 0);
+        new TreeMap<>(roles).forEach((courseId, role) -> {
+            Course course = courses.get(courseId);
+            state.append('|').append(courseId).append('=').append(role)
+                    .append('@').append(course != null && course.getUpdatedAt() != null
+                            ? course.getUpdatedAt().toEpochMilli()
+                            : 0);
+        });
+        String etag = "\"" + digest(state.toString()) + "\"";
+        
+        return new Feed(criteria, courses, etag);
+    }
+    
+    /**
+     * Write a feed as iCalendar, streaming its items from a cursor.
+     * 
+     * @param feed The feed from {@link #openFeed(String)}
+     * @param outputStream The response stream
+     */
+    public void writeFeed(Feed feed, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        ICalendarUtil.writeLine(writer, "BEGIN:VCALENDAR");
+        ICalendarUtil.writeLine(writer, "VERSION:2.0");
+        ICalendarUtil.writeLine(writer, "PRODID:-//CourseFlow//Calendar Feed//EN");
+        ICalendarUtil.writeLine(writer, "CALSCALE:GREGORIAN");
+        ICalendarUtil.writeLine(writer, "METHOD:PUBLISH");
+        ICalendarUtil.writeLine(writer, "X-WR-CALNAME:CourseFlow");
+        ICalendarUtil.writeLine(writer, "REFRESH-INTERVAL;VALUE=DURATION:PT" + refreshIntervalMinutes + "M");
+        ICalendarUtil.writeLine(writer, "X-PUBLISHED-TTL:PT" + refreshIntervalMinutes + "M");
+        
+        if (feed.criteria() != null) {
+            Query query = new Query(feed.criteria())
+                    .with(Sort.by(Sort.Direction.ASC, "dueDate"))
+                    .cursorBatchSize(batchSize);
+            try (Stream<DueItem> items = mongoTemplate.stream(query, DueItem.class)) {
+                Iterator<DueItem> iterator = items.iterator();
+                while (iterator.hasNext()) {
+                    writeEvent(writer, iterator.next(), feed.courses());
+                }
+            }
+        }
+        
+        ICalendarUtil.writeLine(writer, "END:VCALENDAR");
+        writer.flush();
+    }
+    
+    private void writeEvent(Writer writer, DueItem item, Map<String, Course> courses) throws IOException {
+        Course course = courses.get(item.getCourseId());
+        String courseLabel = course == null ? null
+                : course.getCode() != null && !course.getCode().isBlank() ? course.getCode() : course.getTitle();
+        String summary = courseLabel != null ? courseLabel + ": " + item.getTitle() : item.getTitle();
+        String due = ICalendarUtil.formatDateTime(item.getDueDate());
+        
+        StringBuilder description = new StringBuilder(
+                item.getType() == DueItem.ItemType.ASSIGNMENT ? "Assignment" : "Module item");
+        if (course != null && course.getTitle() != null) {
+            description.append(" in ").append(course.getTitle());
+        }
+        if (item.getPoints() != null) {
+            description.append(" (").append(formatPoints(item.getPoints())).append(" points)");
+        }
+        
+        ICalendarUtil.writeLine(writer, "BEGIN:VEVENT");
+        ICalendarUtil.writeLine(writer, "UID:" + item.getId().replace(':', '-') + "@courseflow");
+        ICalendarUtil.writeLine(writer, "DTSTAMP:" + ICalendarUtil.formatDateTime(
+                item.getUpdatedAt() != null ? item.getUpdatedAt() : item.getDueDate()));
+        ICalendarUtil.writeLine(writer, "DTSTART:" + due);
+        ICalendarUtil.writeLine(writer, "DTEND:" + due);
+        ICalendarUtil.writeLine(writer, "SUMMARY:" + ICalendarUtil.escape(summary));
+        ICalendarUtil.writeLine(writer, "DESCRIPTION:" + ICalendarUtil.escape(description.toString()));
+        if (item.getUrl() != null && !item.getUrl().isBlank()) {
+            ICalendarUtil.writeLine(writer, "URL:" + item.getUrl().replaceAll("[\\r\\n]", ""));
+        }
+        ICalendarUtil.writeLine(writer, "TRANSP:TRANSPARENT");
+        ICalendarUtil.writeLine(writer, "END:VEVENT");
+    }
+    
+    private static String formatPoints(double points) {
+        return points == Math.rint(points) ? String.valueOf((long) points) : String.valueOf(points);
+    }
+    
+    private static String digest(String value) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * A resolved feed: the filter on its items, the courses they belong to, and its entity tag.
+     */
+    public record Feed(Criteria criteria, Map<String, Course> courses, String etag) {
+    }
+}
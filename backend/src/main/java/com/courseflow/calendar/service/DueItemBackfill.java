@@ -0,0 +1,59 @@
+package com.courseflow.calendar.service;
+
+import com.courseflow.calendar.model.DueItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the due-item index from existing assignments and module trees when it is empty, e.g. on
+ * the first start after the index was introduced. Afterwards the services keep it up to date.
+ * To force a rebuild, drop the due_items collection or set {@code calendar.due-items.rebuild}.
+ * 
+ * Runs after {@link com.courseflow.common.mongo.MongoIndexBootstrap} created the collection's indexes.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class DueItemBackfill implements ApplicationRunner {
+    
+    private final DueItemService dueItemService;
+    private final MongoTemplate mongoTemplate;
+    private final boolean backfill;
+    private final boolean rebuild;
+    private final int batchSize;
+    
+    public DueItemBackfill(
+            DueItemService dueItemService,
+            MongoTemplate mongoTemplate,
+            @Value("${calendar.due-items.backfill:true}") boolean backfill,
+            @Value("${calendar.due-items.rebuild:false}") boolean rebuild,
+            @Value("${calendar.due-items.batch-size:500}") int batchSize) {
+        this.dueItemService = dueItemService;
+        this.mongoTemplate = mongoTemplate;
+        this.backfill = backfill;
+        this.rebuild = rebuild;
+        this.batchSize = batchSize;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            if (!rebuild && (!backfill || mongoTemplate.exists(new Query(), DueItem.class))) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            long indexed = dueItemService.rebuild(batchSize);
+            log.info("Indexed {} due items in {} ms", indexed, System.currentTimeMillis() - start);
+        } catch (DataAccessException e) {
+            log.warn("Could not backfill due items: {}", e.getMessage());
+        }
+    }
+}
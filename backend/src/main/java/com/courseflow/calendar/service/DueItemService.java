@@ -0,0 +1,392 @@
+package com.courseflow.calendar.service;
+
+import com.courseflow.assignments.model.Assignment;
+import com.courseflow.assignments.model.Submission;
+import com.courseflow.auth.service.AuthService;
+import com.courseflow.calendar.dto.DueItemResponse;
+import com.courseflow.calendar.model.DueItem;
+import com.courseflow.calendar.repository.DueItemRepository;
+import com.courseflow.common.error.ApiException;
+import com.courseflow.courses.model.Course;
+import com.courseflow.enrollments.model.Enrollment;
+import com.courseflow.enrollments.service.EnrollmentService;
+import com.courseflow.modules.model.CourseModule;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the due-item index (see {@link DueItem}) and answers "what is due between two dates"
+ * for a user with one range query over the user's courses.
+ * 
+ * Assignments are synced one by one; module trees are diffed against the indexed entries of the
+ * course so that only added, changed or removed items are written.
+ */
+@Slf4j
+@Service
+public class DueItemService {
+    
+    private final DueItemRepository dueItemRepository;
+    private final EnrollmentService enrollmentService;
+    private final AuthService authService;
+    private final MongoTemplate mongoTemplate;
+    private final Duration defaultRange;
+    private final Duration maxRange;
+    private final int defaultLimit;
+    private final int maxLimit;
+    
+    public DueItemService(
+            DueItemRepository dueItemRepository,
+            EnrollmentService enrollmentService,
+            AuthService authService,
+            MongoTemplate mongoTemplate,
+            @Value("${calendar.upcoming.default-range-days:14}") long defaultRangeDays,
+            @Value("${calendar.upcoming.max-range-days:400}") long maxRangeDays,
+            @Value("${calendar.upcoming.limit.default:200}") int defaultLimit,
+            @Value("${calendar.upcoming.limit.max:1000}") int maxLimit) {
+        this.dueItemRepository = dueItemRepository;
+        this.enrollmentService = enrollmentService;
+        this.authService = authService;
+        this.mongoTemplate = mongoTemplate;
+        this.defaultRange = Duration.ofDays(defaultRangeDays);
+        this.maxRange = Duration.ofDays(maxRangeDays);
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+    
+    /**
+     * Index an assignment after it was created or updated; drops the entry if it has no due date.
+     * 
+     * @param assignment The saved assignment
+     */
+    public void syncAssignment(Assignment assignment) {
+        if (assignment.getDueDate() == null) {
+            removeAssignment(assignment.getId());
+            return;
+        }
+        DueItem item = toDueItem(assignment);
+        item.setUpdatedAt(Instant.now());
+        dueItemRepository.save(item);
+    }
+    
+    /**
+     * Remove a deleted assignment from the index.
+     * 
+     * @param assignmentId The assignment ID
+     */
+    public void removeAssignment(String assignmentId) {
+        dueItemRepository.deleteById(DueItem.assignmentKey(assignmentId));
+    }
+    
+    /**
+     * Index a single module item after it was added to a module.
+     * 
+     * @param courseId The course ID
+     * @param moduleId The module ID
+     * @param moduleItem The new module item
+     */
+    public void syncModuleItem(String courseId, String moduleId, CourseModule.ModuleItem moduleItem) {
+        if (moduleItem.getDueDate() == null) {
+            return;
+        }
+        DueItem item = toDueItem(courseId, moduleId, moduleItem);
+        item.setUpdatedAt(Instant.now());
+        dueItemRepository.save(item);
+    }
+    
+    /**
+     * Bring the indexed module items of a course in line with its saved module tree.
+     * 
+     * @param courseModule The saved module tree
+     */
+    public void syncModules(CourseModule courseModule) {
+        String courseId = courseModule.getCourseId();
+        Map<String, DueItem> desired = new HashMap<>();
+        for (CourseModule.Module module : courseModule.getModules()) {
+            for (CourseModule.ModuleItem moduleItem : module.getItems()) {
+                if (moduleItem.getDueDate() != null && moduleItem.getItemId() != null) {
+                    DueItem item = toDueItem(courseId, module.getModuleId(), moduleItem);
+                    desired.put(item.getId(), item);
+                }
+            }
+        }
+        Map<String, DueItem> existing = dueItemRepository.findByCourseIdAndType(courseId, DueItem.ItemType.MODULE_ITEM)
+                .stream()
+                .collect(Collectors.toMap(DueItem::getId, Function.identity()));
+        
+        Instant now = Instant.now();
+        List<DueItem> changed = desired.values().stream()
+                .filter(item -> !item.sameContent(existing.get(item.getId())))
+                .peek(item -> item.setUpdatedAt(now))
+                .collect(Collectors.toList());
+        List<String> removed = existing.keySet().stream()
+                .filter(id -> !desired.containsKey(id))
+                .collect(Collectors.toList());
+        
+        if (!changed.isEmpty()) {
+            dueItemRepository.saveAll(changed);
+        }
+        if (!removed.isEmpty()) {
+            dueItemRepository.deleteAllById(removed);
+        }
+        log.debug("Due items of course {} synced: {} changed, {} removed", courseId, changed.size(), removed.size());
+    }
+    
+    /**
+     * Get the current user's dated items between two instants across all of their courses.
+     * 
+     * @param from Range start (inclusive); defaults to now
+     * @param to Range end (exclusive); defaults to the configured range after from
+     * @param limit Maximum number of items; defaults to the configured limit
+     * @return Items sorted by due date
+     */
+    public List<DueItemResponse> getMyDueItems(Instant from, Instant to, Integer limit) {
+        String userId = authService.getCurrentUser().getId();
+        Instant start = from != null ? from : Instant.now();
+        Instant end = to != null ? to : start.plus(defaultRange);
+        if (!end.isAfter(start)) {
+            throw new ApiException("INVALID_RANGE", "'to' must be after 'from'", 400);
+        }
+        if (Duration.between(start, end).compareTo(maxRange) > 0) {
+            throw new ApiException("INVALID_RANGE",
+                    "Range must not exceed " + maxRange.toDays() + " days", 400);
+        }
+        int pageLimit = limit != null ? Math.max(1, Math.min(limit, maxLimit)) : defaultLimit;
+        
+        Map<String, Enrollment.CourseRole> roles = enrollmentService.getUserEnrollments(userId).stream()
+                .collect(Collectors.toMap(Enrollment::getCourseId,
+                        enrollment -> enrollment.getCourseRole() != null
+                                ? enrollment.getCourseRole()
+                                : Enrollment.CourseRole.STUDENT,
+                        (a, b) -> a));
+        List<DueItem> items = findDueItems(roles, start, end, pageLimit);
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        
+        Query coursesQuery = new Query(Criteria.where("_id")
+                .in(items.stream().map(DueItem::getCourseId).collect(Collectors.toSet())));
+        coursesQuery.fields().include("title");
+        Map<String, String> courseTitles = new HashMap<>();
+        mongoTemplate.find(coursesQuery, Course.class)
+                .forEach(course -> courseTitles.put(course.getId(), course.getTitle()));
+        Set<String> submitted = findSubmittedAssignmentIds(userId, items);
+        
+        return items.stream()
+                .map(item -> mapToResponse(item, courseTitles.get(item.getCourseId()), submitted))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Find dated items of a user's courses in a range, soonest first.
+     * 
+     * @param roles The user's active course roles by course ID
+     * @param from Range start (inclusive)
+     * @param to Range end (exclusive)
+     * @param limit Maximum number of items
+     * @return Due items sorted by due date
+     */
+    public List<DueItem> findDueItems(Map<String, Enrollment.CourseRole> roles, Instant from, Instant to, int limit) {
+        Criteria criteria = visibleTo(roles, from, to);
+        if (criteria == null) {
+            return List.of();
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "dueDate"))
+                .limit(limit);
+        return mongoTemplate.find(query, DueItem.class);
+    }
+    
+    /**
+     * Build the filter for the dated items of a user's courses in a range. Staff (instructors
+     * and TAs) see unpublished items of their courses; students only published ones.
+     * 
+     * @param roles The user's active course roles by course ID
+     * @param from Range start (inclusive)
+     * @param to Range end (exclusive), or null for no end
+     * @return Filter on due items, or null if the user has no courses
+     */
+    public Criteria visibleTo(Map<String, Enrollment.CourseRole> roles, Instant from, Instant to) {
+        List<String> staffCourseIds = new ArrayList<>();
+        List<String> studentCourseIds = new ArrayList<>();
+        roles.forEach((courseId, role) -> (role == Enrollment.CourseRole.STUDENT ? studentCourseIds : staffCourseIds)
+                .add(courseId));
+        
+        List<Criteria> branches = new ArrayList<>();
+        if (!staffCourseIds.isEmpty()) {
+            branches.add(Criteria.where("courseId").in(staffCourseIds));
+        }
+        if (!studentCourseIds.isEmpty()) {
+            branches.add(Criteria.where("courseId").in(studentCourseIds).and("published").is(true));
+        }
+        if (branches.isEmpty()) {
+            return null;
+        }
+        
+        Criteria courses = branches.size() == 1 ? branches.get(0) : new Criteria().orOperator(branches);
+        Criteria range = Criteria.where("dueDate").gte(from);
+        if (to != null) {
+            range.lt(to);
+        }
+        return new Criteria().andOperator(courses, range);
+    }
+    
+    /**
+     * Find which assignments among the given due items the user has submitted.
+     * 
+     * @param userId The user ID
+     * @param items Due items
+     * @return IDs of submitted assignments
+     */
+    public Set<String> findSubmittedAssignmentIds(String userId, Collection<DueItem> items) {
+        Set<String> assignmentIds = items.stream()
+                .filter(item -> item.getType() == DueItem.ItemType.ASSIGNMENT)
+                .map(DueItem::getItemId)
+                .collect(Collectors.toSet());
+        if (assignmentIds.isEmpty()) {
+            return Set.of();
+        }
+        Query query = new Query(Criteria.where("assignmentId").in(assignmentIds).and("studentId").is(userId));
+        query.fields().include("assignmentId");
+        return mongoTemplate.find(query, Submission.class).stream()
+                .map(Submission::getAssignmentId)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+    
+    /**
+     * Map a due item to its response.
+     * 
+     * @param item The due item
+     * @param courseTitle Title of the item's course
+     * @param submitted IDs of assignments the user has submitted
+     * @return Due item response
+     */
+    public DueItemResponse mapToResponse(DueItem item, String courseTitle, Set<String> submitted) {
+        boolean assignment = item.getType() == DueItem.ItemType.ASSIGNMENT;
+        return DueItemResponse.builder()
+                .type(item.getType().name())
+                .itemId(item.getItemId())
+                .moduleId(item.getModuleId())
+                .courseId(item.getCourseId())
+                .courseTitle(courseTitle)
+                .title(item.getTitle())
+                .url(item.getUrl())
+                .dueDate(item.getDueDate())
+                .points(item.getPoints())
+                .published(item.getPublished())
+                .submitted(assignment ? submitted.contains(item.getItemId()) : null)
+                .build();
+    }
+    
+    /**
+     * Rebuild the whole index from assignments and module trees. Entries are upserted, so the
+     * index stays readable meanwhile; entries not touched by the rebuild are orphans and removed.
+     * 
+     * @param batchSize Entries per bulk write
+     * @return Number of indexed items
+     */
+    public long rebuild(int batchSize) {
+        Instant startedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        long indexed = 0;
+        List<DueItem> batch = new ArrayList<>(batchSize);
+        
+        Query assignmentsQuery = new Query(Criteria.where("dueDate").ne(null)).cursorBatchSize(batchSize);
+        assignmentsQuery.fields().include("courseId", "title", "dueDate", "points", "published");
+        try (Stream<Assignment> assignments = mongoTemplate.stream(assignmentsQuery, Assignment.class)) {
+            Iterator<Assignment> iterator = assignments.iterator();
+            while (iterator.hasNext()) {
+                batch.add(toDueItem(iterator.next()));
+                if (batch.size() == batchSize) {
+                    indexed += upsertAll(batch);
+                }
+            }
+        }
+        
+        try (Stream<CourseModule> modules = mongoTemplate.stream(new Query().cursorBatchSize(batchSize), CourseModule.class)) {
+            Iterator<CourseModule> iterator = modules.iterator();
+            while (iterator.hasNext()) {
+                CourseModule courseModule = iterator.next();
+                for (CourseModule.Module module : courseModule.getModules()) {
+                    for (CourseModule.ModuleItem moduleItem : module.getItems()) {
+                        if (moduleItem.getDueDate() == null || moduleItem.getItemId() == null) {
+                            continue;
+                        }
+                        batch.add(toDueItem(courseModule.getCourseId(), module.getModuleId(), moduleItem));
+                        if (batch.size() == batchSize) {
+                            indexed += upsertAll(batch);
+                        }
+                    }
+                }
+            }
+        }
+        indexed += upsertAll(batch);
+        
+        mongoTemplate.remove(new Query(Criteria.where("updatedAt").lt(startedAt)), DueItem.class);
+        return indexed;
+    }
+    
+    private int upsertAll(List<DueItem> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Instant now = Instant.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DueItem.class);
+        for (DueItem item : batch) {
+            item.setUpdatedAt(now);
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(item.getId())), item,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+    
+    private static DueItem toDueItem(Assignment assignment) {
+        return DueItem.builder()
+                .id(DueItem.assignmentKey(assignment.getId()))
+                .courseId(assignment.getCourseId())
+                .type(DueItem.ItemType.ASSIGNMENT)
+                .itemId(assignment.getId())
+                .title(assignment.getTitle())
+                .dueDate(assignment.getDueDate().truncatedTo(ChronoUnit.MILLIS))
+                .points(assignment.getPoints())
+                .published(Boolean.TRUE.equals(assignment.getPublished()))
+                .build();
+    }
+    
+    private static DueItem toDueItem(String courseId, String moduleId, CourseModule.ModuleItem moduleItem) {
+        return DueItem.builder()
+                .id(DueItem.moduleItemKey(moduleItem.getItemId()))
+                .courseId(courseId)
+                .type(DueItem.ItemType.MODULE_ITEM)
+                .itemId(moduleItem.getItemId())
+                .moduleId(moduleId)
+                .title(moduleItem.getTitle())
+                .url(moduleItem.getUrl())
+                .dueDate(moduleItem.getDueDate().truncatedTo(ChronoUnit.MILLIS))
+                .published(Boolean.TRUE.equals(moduleItem.getPublished()))
+                .build();
+    }
+}
@@ -35,6 +35,9 @@ public class RootController {
         endpoints.put("assignments", "/courses/{courseId}/assignments");
         endpoints.put("modules", "/courses/{courseId}/modules");
         endpoints.put("grades", "/courses/{courseId}/grades");
+        endpoints.put("dashboard", "/me/dashboard");
+        endpoints.put("upcoming", "/me/upcoming");
+        endpoints.put("calendar", "/calendar");
         info.put("endpoints", endpoints);
         
         return ResponseEntity.ok(ApiResponse.success(info, "CourseFlow API is running"));
@@ -0,0 +1,32 @@
+package com.courseflow.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ * Pass {@code nextCursor} back as the {@code cursor} parameter to get the following page.
+ * 
+ * @param <T> The type of items in the page
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    @Builder.Default
+    private List<T> items = new ArrayList<>();
+    
+    /**
+     * Opaque cursor of the next page, or null if this is the last page.
+     */
+    private String nextCursor;
+    
+    private boolean hasMore;
+}
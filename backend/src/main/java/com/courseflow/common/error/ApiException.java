@@ -29,5 +29,11 @@ public class ApiException extends RuntimeException {
         this.code = code;
         this.statusCode = 400;
     }
+    
+    public ApiException(String code, String message, int statusCode, Throwable cause) {
+        super(message, cause);
+        this.code = code;
+        this.statusCode = statusCode;
+    }
 }
 
@@ -0,0 +1,18 @@
+package com.courseflow.common.error;
+
+import lombok.Getter;
+
+/**
+ * Exception thrown when a bounded resource is saturated and the request should be retried later.
+ * Mapped to HTTP 503 with a Retry-After header by GlobalExceptionHandler.
+ */
+@Getter
+public class ServiceBusyException extends ApiException {
+    
+    private final long retryAfterSeconds;
+    
+    public ServiceBusyException(String code, String message, long retryAfterSeconds) {
+        super(code, message, 503);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
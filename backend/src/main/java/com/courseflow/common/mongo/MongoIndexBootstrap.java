@@ -0,0 +1,179 @@
+package com.courseflow.common.mongo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates and verifies the MongoDB indexes declared on entities (@Indexed, @CompoundIndex)
+ * before the application reports ready. Spring Data's auto-index-creation is off by default,
+ * so without this the declared indexes, including the ones backing derived repository queries,
+ * may silently never exist.
+ * 
+ * Runs as an ApplicationRunner, i.e. before the readiness state switches to accepting traffic.
+ * Missing indexes are logged and exposed through the "mongoIndexes" health indicator; with
+ * {@code mongo.indexes.fail-on-missing} enabled they abort startup instead.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MongoIndexBootstrap implements ApplicationRunner {
+    
+    private final MongoTemplate mongoTemplate;
+    private final boolean ensureIndexes;
+    private final boolean failOnMissing;
+    
+    private volatile List<String> missingIndexes = Collections.emptyList();
+    private volatile boolean verified;
+    
+    public MongoIndexBootstrap(
+            MongoTemplate mongoTemplate,
+            @Value("${mongo.indexes.ensure:true}") boolean ensureIndexes,
+            @Value("${mongo.indexes.fail-on-missing:false}") boolean failOnMissing) {
+        this.mongoTemplate = mongoTemplate;
+        this.ensureIndexes = ensureIndexes;
+        this.failOnMissing = failOnMissing;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext =
+                mongoTemplate.getConverter().getMappingContext();
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        
+        List<String> missing = new ArrayList<>();
+        int declared = 0;
+        try {
+            for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+                if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                    continue;
+                }
+                
+                String collection = entity.getCollection();
+                IndexOperations indexOps = mongoTemplate.indexOps(collection);
+                List<MongoPersistentEntityIndexResolver.IndexDefinitionHolder> definitions = new ArrayList<>();
+                resolver.resolveIndexFor(entity.getTypeInformation())
+                        .forEach(definition -> definitions.add(
+                                (MongoPersistentEntityIndexResolver.IndexDefinitionHolder) definition));
+                declared += definitions.size();
+                
+                if (ensureIndexes) {
+                    for (MongoPersistentEntityIndexResolver.IndexDefinitionHolder definition : definitions) {
+                        ensure(indexOps, definition);
+                    }
+                }
+                
+                Set<String> existing = indexOps.getIndexInfo().stream()
+                        .map(MongoIndexBootstrap::keySignature)
+                        .collect(Collectors.toCollection(HashSet::new));
+                for (MongoPersistentEntityIndexResolver.IndexDefinitionHolder definition : definitions) {
+                    if (!existing.contains(keySignature(definition.getIndexKeys()))) {
+                        missing.add(collection + " " + definition.getIndexKeys().toJson());
+                    }
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not verify MongoDB indexes: {}", e.getMessage());
+            if (failOnMissing) {
+                throw new IllegalStateException("MongoDB index verification failed", e);
+            }
+            return;
+        }
+        
+        this.missingIndexes = Collections.unmodifiableList(missing);
+        this.verified = true;
+        
+        if (missing.isEmpty()) {
+            log.info("Verified {} MongoDB indexes in {} ms", declared, System.currentTimeMillis() - start);
+            return;
+        }
+        
+        log.error("Missing {} of {} declared MongoDB indexes: {}", missing.size(), declared, missing);
+        if (failOnMissing) {
+            throw new IllegalStateException("Missing MongoDB indexes: " + missing);
+        }
+    }
+    
+    /**
+     * Get the declared indexes that were not found at startup.
+     */
+    public List<String> getMissingIndexes() {
+        return missingIndexes;
+    }
+    
+    /**
+     * Check whether index verification completed (MongoDB was reachable at startup).
+     */
+    public boolean isVerified() {
+        return verified;
+    }
+    
+    /**
+     * Create one index. An equivalent index that already exists under another name or with
+     * other options is reported and left alone; the key check afterwards still accepts it.
+     */
+    private void ensure(IndexOperations indexOps, MongoPersistentEntityIndexResolver.IndexDefinitionHolder definition) {
+        try {
+            indexOps.ensureIndex(definition);
+        } catch (DataAccessResourceFailureException e) {
+            // MongoDB unreachable: give up on the whole run instead of timing out per index
+            throw e;
+        } catch (DataAccessException e) {
+            log.warn("Could not create index {} on {}: {}",
+                    definition.getIndexKeys().toJson(), definition.getCollection(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Key pattern of a declared index, e.g. "courseId:1,dueDate:1".
+     */
+    private static String keySignature(Document keys) {
+        return keys.entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + entry.getValue())
+                .collect(Collectors.joining(","));
+    }
+    
+    /**
+     * Key pattern of an existing index, in the same form as {@link #keySignature(Document)}.
+     */
+    private static String keySignature(IndexInfo info) {
+        return info.getIndexFields().stream()
+                .map(MongoIndexBootstrap::keyValue)
+                .collect(Collectors.joining(","));
+    }
+    
+    private static String keyValue(IndexField field) {
+        if (field.isGeo()) {
+            return field.getKey() + ":2d";
+        }
+        if (field.isText()) {
+            return field.getKey() + ":text";
+        }
+        return field.getKey() + ":" + (field.getDirection() == Sort.Direction.DESC ? -1 : 1);
+    }
+}
@@ -0,0 +1,27 @@
+package com.courseflow.common.mongo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the result of the startup index verification as the "mongoIndexes" health component.
+ */
+@Component("mongoIndexes")
+@RequiredArgsConstructor
+public class MongoIndexHealthIndicator implements HealthIndicator {
+    
+    private final MongoIndexBootstrap indexBootstrap;
+    
+    @Override
+    public Health health() {
+        if (!indexBootstrap.isVerified()) {
+            return Health.unknown().withDetail("reason", "Indexes not verified").build();
+        }
+        if (!indexBootstrap.getMissingIndexes().isEmpty()) {
+            return Health.down().withDetail("missing", indexBootstrap.getMissingIndexes()).build();
+        }
+        return Health.up().build();
+    }
+}
@@ -0,0 +1,222 @@
+package com.courseflow.common.mongo;
+
+import com.mongodb.ExplainVerbosity;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Explains every derived query method of the MongoDB repositories against the live database
+ * and reports plans that scan the whole collection (COLLSCAN) or sort in memory (SORT).
+ * Catches a new repository method without a supporting index before it reaches a course
+ * large enough for the scan to hurt.
+ * 
+ * Runs after {@link MongoIndexBootstrap} when {@code mongo.query-plans.verify} is enabled
+ * (on in the dev profile, where bad plans are only logged). With
+ * {@code mongo.query-plans.fail-on-violation} (e.g. in CI) a bad plan aborts startup.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class QueryPlanVerifier implements ApplicationRunner {
+    
+    private static final List<String> REJECTED_STAGES = List.of("COLLSCAN", "SORT");
+    private static final String PROBE_VALUE = "query-plan-probe";
+    
+    private final ApplicationContext applicationContext;
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+    private final boolean failOnViolation;
+    
+    public QueryPlanVerifier(
+            ApplicationContext applicationContext,
+            MongoTemplate mongoTemplate,
+            @Value("${mongo.query-plans.verify:false}") boolean enabled,
+            @Value("${mongo.query-plans.fail-on-violation:false}") boolean failOnViolation) {
+        this.applicationContext = applicationContext;
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+        this.failOnViolation = failOnViolation;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        Repositories repositories = new Repositories(applicationContext);
+        List<String> violations = new ArrayList<>();
+        int checked = 0;
+        
+        try {
+            for (Class<?> domainType : repositories) {
+                RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+                MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext()
+                        .getRequiredPersistentEntity(domainType);
+                
+                for (Method method : information.getQueryMethods()) {
+                    String name = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                    Query query = toQuery(method, domainType);
+                    if (query == null) {
+                        log.warn("Query plan of {} not checked: not a derived query with supported keywords", name);
+                        continue;
+                    }
+                    
+                    Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+                    Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+                    Document plan = mongoTemplate.getCollection(entity.getCollection())
+                            .find(filter)
+                            .sort(sort)
+                            .explain(ExplainVerbosity.QUERY_PLANNER);
+                    
+                    List<String> stages = new ArrayList<>();
+                    Document queryPlanner = plan.get("queryPlanner", Document.class);
+                    collectStages(queryPlanner != null ? queryPlanner.get("winningPlan") : null, stages);
+                    checked++;
+                    
+                    List<String> rejected = stages.stream().filter(REJECTED_STAGES::contains).distinct().toList();
+                    if (rejected.isEmpty()) {
+                        log.debug("Query plan of {} ok: {}", name, stages);
+                    } else {
+                        violations.add(name + " " + rejected + " filter=" + filter.toJson() + " sort=" + sort.toJson());
+                    }
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not verify repository query plans: {}", e.getMessage());
+            return;
+        }
+        
+        if (violations.isEmpty()) {
+            log.info("Verified query plans of {} repository methods", checked);
+            return;
+        }
+        
+        violations.forEach(violation -> log.error("Query plan regression: {}", violation));
+        if (failOnViolation) {
+            throw new IllegalStateException("Repository queries without index support: " + violations);
+        }
+    }
+    
+    /**
+     * Build a probe query from a derived query method name. Values are placeholders of the
+     * property type; only the shape of the filter and sort matters for the plan.
+     * 
+     * @return Probe query, or null if the method uses keywords the probe cannot express
+     */
+    private Query toQuery(Method method, Class<?> domainType) {
+        if (method.isAnnotationPresent(org.springframework.data.mongodb.repository.Query.class)) {
+            return null;
+        }
+        
+        PartTree tree;
+        try {
+            tree = new PartTree(method.getName(), domainType);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        
+        List<Criteria> branches = new ArrayList<>();
+        for (PartTree.OrPart orPart : tree) {
+            List<Criteria> conditions = new ArrayList<>();
+            for (Part part : orPart) {
+                Criteria condition = toCriteria(part);
+                if (condition == null) {
+                    return null;
+                }
+                conditions.add(condition);
+            }
+            branches.add(conditions.size() == 1 ? conditions.get(0) : new Criteria().andOperator(conditions));
+        }
+        
+        Query query = new Query();
+        if (branches.size() == 1) {
+            query.addCriteria(branches.get(0));
+        } else if (!branches.isEmpty()) {
+            query.addCriteria(new Criteria().orOperator(branches));
+        }
+        return query.with(tree.getSort());
+    }
+    
+    private Criteria toCriteria(Part part) {
+        Criteria criteria = Criteria.where(part.getProperty().toDotPath());
+        Object value = probeValue(part.getProperty().getLeafProperty().getType());
+        
+        return switch (part.getType()) {
+            case SIMPLE_PROPERTY, CONTAINING -> criteria.is(value);
+            case NEGATING_SIMPLE_PROPERTY -> criteria.ne(value);
+            case IN -> criteria.in(value);
+            case GREATER_THAN, AFTER -> criteria.gt(value);
+            case GREATER_THAN_EQUAL -> criteria.gte(value);
+            case LESS_THAN, BEFORE -> criteria.lt(value);
+            case LESS_THAN_EQUAL -> criteria.lte(value);
+            case IS_NULL -> criteria.is(null);
+            case IS_NOT_NULL -> criteria.ne(null);
+            case EXISTS -> criteria.exists(true);
+            case TRUE -> criteria.is(true);
+            case FALSE -> criteria.is(false);
+            default -> null;
+        };
+    }
+    
+    private static Object probeValue(Class<?> type) {
+        if (type.isEnum()) {
+            return ((Enum<?>) type.getEnumConstants()[0]).name();
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return Boolean.TRUE;
+        }
+        if (Number.class.isAssignableFrom(type) || type.isPrimitive()) {
+            return 0;
+        }
+        if (type == Instant.class || type == Date.class) {
+            return new Date();
+        }
+        return PROBE_VALUE;
+    }
+    
+    /**
+     * Collect the stage names of a plan tree. Handles classic plans (inputStage/inputStages)
+     * and slot-based engine plans, which wrap the tree in a "queryPlan" node.
+     */
+    private static void collectStages(Object node, List<String> stages) {
+        if (!(node instanceof Document document)) {
+            return;
+        }
+        
+        Object stage = document.get("stage");
+        if (stage instanceof String stageName) {
+            stages.add(stageName);
+        }
+        collectStages(document.get("queryPlan"), stages);
+        collectStages(document.get("inputStage"), stages);
+        if (document.get("inputStages") instanceof Collection<?> inputStages) {
+            inputStages.forEach(inputStage -> collectStages(inputStage, stages));
+        }
+    }
+}
@@ -9,33 +9,49 @@ import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.web.bind.annotation.PathVariable;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Aspect for handling course security annotations (@RequireEnrollment, @RequireInstructor).
  * Intercepts method calls and checks enrollment/permissions before execution.
+ * 
+ * The position of the courseId argument is resolved once per method (at startup for all
+ * annotated beans, which fails fast on methods without a resolvable parameter), so the
+ * guarded call path is a single array access.
  */
 @Slf4j
 @Aspect
 @Component
 @Order(1) // Execute before other aspects
 @RequiredArgsConstructor
-public class CourseSecurityAspect {
+public class CourseSecurityAspect implements SmartInitializingSingleton {
+    
+    private static final String BASE_PACKAGE = "com.courseflow";
     
     private final EnrollmentService enrollmentService;
     private final AuthService authService;
+    private final ApplicationContext applicationContext;
+    
+    private final Map<Method, Integer> enrollmentCourseIdIndexes = new ConcurrentHashMap<>();
+    private final Map<Method, Integer> instructorCourseIdIndexes = new ConcurrentHashMap<>();
     
     /**
      * Intercept methods annotated with @RequireEnrollment.
      */
     @Before("@annotation(requireEnrollment)")
     public void checkEnrollment(JoinPoint joinPoint, RequireEnrollment requireEnrollment) {
-        String courseId = extractCourseId(joinPoint, requireEnrollment.courseIdParam());
+        String courseId = extractCourseId(joinPoint, enrollmentCourseIdIndexes, requireEnrollment.courseIdParam());
         String userId = authService.getCurrentUser().getId();
         
         log.debug("Checking enrollment for user {} in course {}", userId, courseId);
@@ -47,7 +63,7 @@ public class CourseSecurityAspect {
      */
     @Before("@annotation(requireInstructor)")
     public void checkInstructorRole(JoinPoint joinPoint, RequireInstructor requireInstructor) {
-        String courseId = extractCourseId(joinPoint, requireInstructor.courseIdParam());
+        String courseId = extractCourseId(joinPoint, instructorCourseIdIndexes, requireInstructor.courseIdParam());
         String userId = authService.getCurrentUser().getId();
         
         log.debug("Checking instructor role for user {} in course {}", userId, courseId);
@@ -55,22 +71,74 @@ public class CourseSecurityAspect {
     }
     
     /**
-     * Extract course ID from method parameters.
-     * Tries to find a parameter with the specified name or a @PathVariable parameter.
+     * Resolve the courseId argument index of every annotated method in application beans.
+     * Fails application startup if any guarded method has no resolvable courseId parameter.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        int resolved = 0;
+        for (String beanName : applicationContext.getBeanDefinitionNames()) {
+            Class<?> beanType = applicationContext.getType(beanName, false);
+            if (beanType == null) {
+                continue;
+            }
+            Class<?> userClass = ClassUtils.getUserClass(beanType);
+            if (!userClass.getName().startsWith(BASE_PACKAGE)) {
+                continue;
+            }
+            
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(userClass)) {
+                RequireEnrollment requireEnrollment = method.getAnnotation(RequireEnrollment.class);
+                if (requireEnrollment != null) {
+                    enrollmentCourseIdIndexes.put(method, 
+                            resolveCourseIdIndex(method, requireEnrollment.courseIdParam()));
+                    resolved++;
+                }
+                RequireInstructor requireInstructor = method.getAnnotation(RequireInstructor.class);
+                if (requireInstructor != null) {
+                    instructorCourseIdIndexes.put(method, 
+                            resolveCourseIdIndex(method, requireInstructor.courseIdParam()));
+                    resolved++;
+                }
+            }
+        }
+        log.debug("Resolved courseId parameter for {} course-secured methods", resolved);
+    }
+    
+    /**
+     * Extract course ID from method arguments using the precomputed parameter index.
      */
-    private String extractCourseId(JoinPoint joinPoint, String paramName) {
-        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
-        Object[] args = joinPoint.getArgs();
+    private String extractCourseId(JoinPoint joinPoint, Map<Method, Integer> indexes, String paramName) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Integer index = indexes.get(method);
+        if (index == null) {
+            // Method not seen at startup (e.g. bean outside the scanned package)
+            index = indexes.computeIfAbsent(method, m -> resolveCourseIdIndex(m, paramName));
+        }
+        
+        Object arg = joinPoint.getArgs()[index];
+        if (arg instanceof String courseId && !courseId.isEmpty()) {
+            return courseId;
+        }
+        
+        throw new ApiException("INVALID_COURSE_ID", 
+                "Could not extract courseId parameter from method: " + method.getName());
+    }
+    
+    /**
+     * Find the index of the courseId parameter.
+     * Tries, in order: a String parameter with the specified name, a @PathVariable
+     * with that name, then the first @PathVariable String parameter.
+     * 
+     * @throws IllegalStateException if no parameter can carry the course ID
+     */
+    private static int resolveCourseIdIndex(Method method, String paramName) {
         Parameter[] parameters = method.getParameters();
         
         // First, try to find parameter by name
         for (int i = 0; i < parameters.length; i++) {
-            if (parameters[i].getName().equals(paramName)) {
-                Object arg = args[i];
-                if (arg instanceof String) {
-                    return (String) arg;
-                }
+            if (parameters[i].getName().equals(paramName) && parameters[i].getType() == String.class) {
+                return i;
             }
         }
         
@@ -78,33 +146,25 @@ public class CourseSecurityAspect {
         for (int i = 0; i < parameters.length; i++) {
             Parameter param = parameters[i];
             PathVariable pathVariable = param.getAnnotation(PathVariable.class);
-            if (pathVariable != null) {
+            if (pathVariable != null && param.getType() == String.class) {
                 String pathVarName = pathVariable.value().isEmpty() 
                     ? param.getName() 
                     : pathVariable.value();
                 if (pathVarName.equals(paramName)) {
-                    Object arg = args[i];
-                    if (arg instanceof String) {
-                        return (String) arg;
-                    }
+                    return i;
                 }
             }
         }
         
-        // Last resort: try to find any @PathVariable String parameter
+        // Last resort: first @PathVariable String parameter
         for (int i = 0; i < parameters.length; i++) {
             Parameter param = parameters[i];
-            if (param.isAnnotationPresent(PathVariable.class) && 
-                (param.getType() == String.class || param.getType() == String.class)) {
-                Object arg = args[i];
-                if (arg instanceof String && !((String) arg).isEmpty()) {
-                    return (String) arg;
-                }
+            if (param.isAnnotationPresent(PathVariable.class) && param.getType() == String.class) {
+                return i;
             }
         }
         
-        throw new ApiException("INVALID_COURSE_ID", 
-                "Could not extract courseId parameter from method: " + method.getName());
+        throw new IllegalStateException("No courseId parameter '" + paramName + "' found on course-secured method " 
+                + method.getDeclaringClass().getSimpleName() + "." + method.getName());
     }
 }
-
@@ -0,0 +1,86 @@
+package com.courseflow.common.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class for reading and writing CSV (RFC 4180).
+ */
+public class CsvUtil {
+    
+    /**
+     * Escape a value for a CSV cell. Values containing separators, quotes or line breaks are quoted;
+     * values that spreadsheets would evaluate as formulas are prefixed with a single quote.
+     * 
+     * @param value The cell value (null becomes an empty cell)
+     * @return Escaped cell text
+     */
+    public static String escape(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        
+        String cell = value;
+        char first = cell.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@') {
+            cell = "'" + cell;
+        }
+        
+        if (cell.indexOf(',') >= 0 || cell.indexOf('"') >= 0 || cell.indexOf('\n') >= 0 || cell.indexOf('\r') >= 0) {
+            return '"' + cell.replace("\"", "\"\"") + '"';
+        }
+        return cell;
+    }
+    
+    /**
+     * Format a number for a CSV cell without a trailing ".0" on whole values.
+     * 
+     * @param value The number (null becomes an empty cell)
+     * @return Cell text
+     */
+    public static String number(Double value) {
+        if (value == null) {
+            return "";
+        }
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            return Long.toString(value.longValue());
+        }
+        return value.toString();
+    }
+    
+    /**
+     * Split one CSV record into cells. Quoted cells may contain separators and doubled quotes;
+     * records spanning several lines are not supported.
+     * 
+     * @param line The record
+     * @return Cell values (unquoted, not trimmed)
+     */
+    public static List<String> parseLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+}
@@ -0,0 +1,76 @@
+package com.courseflow.common.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Utility class for writing iCalendar content (RFC 5545).
+ */
+public class ICalendarUtil {
+    
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final int MAX_LINE_OCTETS = 75;
+    
+    /**
+     * Escape a value for a TEXT property: backslashes, semicolons, commas and line breaks.
+     * 
+     * @param value The text (null becomes empty)
+     * @return Escaped text
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case ';' -> escaped.append("\\;");
+                case ',' -> escaped.append("\\,");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> { }
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+    
+    /**
+     * Format an instant as a UTC DATE-TIME value (e.g. 20240131T235900Z).
+     * 
+     * @param instant The instant
+     * @return DATE-TIME text
+     */
+    public static String formatDateTime(Instant instant) {
+        return DATE_TIME.format(instant);
+    }
+    
+    /**
+     * Write a content line terminated by CRLF, folded so no line exceeds 75 octets of UTF-8.
+     * Continuation lines start with a space; multi-byte characters are never split.
+     * 
+     * @param writer The writer
+     * @param line The unfolded content line, e.g. "SUMMARY:Essay 1"
+     */
+    public static void writeLine(Writer writer, String line) throws IOException {
+        int octets = 0;
+        int i = 0;
+        while (i < line.length()) {
+            int codePoint = line.codePointAt(i);
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (octets + size > MAX_LINE_OCTETS) {
+                writer.write("\r\n ");
+                octets = 1;
+            }
+            writer.write(line, i, Character.charCount(codePoint));
+            octets += size;
+            i += Character.charCount(codePoint);
+        }
+        writer.write("\r\n");
+    }
+}
@@ -0,0 +1,13 @@
+package com.courseflow.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling configuration.
+ * Enables @Scheduled background jobs (e.g. refresh token revocation polling, gradebook projection).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
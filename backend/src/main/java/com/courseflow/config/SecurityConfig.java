@@ -60,6 +60,11 @@ public class SecurityConfig {
                                 "/swagger-ui/index.html",
                                 "/api-docs/**"
                         ).permitAll()
+                        // Actuator: health is public, metrics are admin-only
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+                        // Calendar feeds are authenticated by the token in their URL
+                        .requestMatchers(HttpMethod.GET, "/calendar/feed/*").permitAll()
                         // Root API path (for testing)
                         .requestMatchers("/", "/api", "/api/").permitAll()
                         // All other endpoints require authentication (including /auth/me)
@@ -4,6 +4,7 @@ import com.courseflow.courses.dto.CoursePeopleResponse;
 import com.courseflow.courses.dto.CourseRequest;
 import com.courseflow.courses.dto.CourseResponse;
 import com.courseflow.courses.dto.EnrollStudentRequest;
+import com.courseflow.courses.dto.RosterImportResponse;
 import com.courseflow.courses.service.CourseService;
 import com.courseflow.common.dto.ApiResponse;
 import com.courseflow.enrollments.model.Enrollment;
@@ -11,8 +12,10 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 
@@ -60,10 +63,14 @@ public class CourseController {
     }
     
     @GetMapping("/{courseId}/people")
-    @Operation(summary = "Get course people", description = "Get all enrolled users for a course. User must be enrolled in the course.")
+    @Operation(summary = "Get course people", description = "Get enrolled users for a course, sorted by name. Filter by name/email (q) and course role; pass size (and page) to paginate. User must be enrolled in the course.")
     public ResponseEntity<ApiResponse<CoursePeopleResponse>> getCoursePeople(
-            @PathVariable String courseId) {
-        CoursePeopleResponse people = courseService.getCoursePeople(courseId);
+            @PathVariable String courseId,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) Enrollment.CourseRole role,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        CoursePeopleResponse people = courseService.getCoursePeople(courseId, q, role, page, size);
         return ResponseEntity.ok(ApiResponse.success(people));
     }
     
@@ -75,5 +82,16 @@ public class CourseController {
         Enrollment enrollment = courseService.enrollStudent(courseId, request.getUserId());
         return ResponseEntity.ok(ApiResponse.success(enrollment, "Student enrolled successfully"));
     }
+    
+    @PostMapping(value = "/{courseId}/roster/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import roster", description = "Enroll users from a CSV file (email or user ID per row, optional role column) and return a result per row. Only instructors and admins can import rosters; rows enrolling TAs or instructors require the instructor or admin role.")
+    public ResponseEntity<ApiResponse<RosterImportResponse>> importRoster(
+            @PathVariable String courseId,
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "STUDENT") Enrollment.CourseRole role) {
+        RosterImportResponse report = courseService.importRoster(courseId, file, role);
+        return ResponseEntity.ok(ApiResponse.success(report, 
+                "Enrolled " + report.getEnrolled() + " of " + report.getTotal() + " rows"));
+    }
 }
 
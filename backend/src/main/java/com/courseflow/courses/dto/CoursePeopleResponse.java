@@ -19,6 +19,17 @@ public class CoursePeopleResponse {
     
     private List<PersonInfo> people;
     
+    /**
+     * Number of people matching the filters (all pages).
+     */
+    private int total;
+    
+    /**
+     * Page number and size; absent when the whole list was requested.
+     */
+    private Integer page;
+    private Integer size;
+    
     @Data
     @Builder
     @NoArgsConstructor
@@ -0,0 +1,36 @@
+package com.courseflow.courses.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for a roster import, with one result per CSV row.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RosterImportResponse {
+    private int total;
+    private int enrolled;
+    private int alreadyEnrolled;
+    private int failed;
+    private List<RowResult> rows;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        private int line;
+        private String user; // email or user ID as given in the file
+        private String userId;
+        private String status; // "ENROLLED", "ALREADY_ENROLLED" or "FAILED"
+        private String errorCode;
+        private String message;
+    }
+}
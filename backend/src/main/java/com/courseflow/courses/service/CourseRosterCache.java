@@ -0,0 +1,70 @@
+package com.courseflow.courses.service;
+
+import com.courseflow.enrollments.model.Enrollment;
+import com.courseflow.enrollments.service.EnrollmentChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of course rosters (members sorted by name), used by the People page.
+ * Entries are dropped on every {@link EnrollmentChangedEvent} of the course; the TTL bounds
+ * staleness of user names and emails, which change without an enrollment event.
+ */
+@Component
+public class CourseRosterCache {
+    
+    private final Cache<String, List<Member>> cache;
+    
+    public CourseRosterCache(
+            @Value("${courses.roster.cache.maximum-size:1000}") long maximumSize,
+            @Value("${courses.roster.cache.ttl:300000}") long ttlMs,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "courseRoster");
+    }
+    
+    /**
+     * Get the cached roster of a course, loading it on a miss.
+     * 
+     * @param courseId The course ID
+     * @param loader Loads the roster, sorted by name
+     * @return Unmodifiable roster
+     */
+    public List<Member> get(String courseId, Supplier<List<Member>> loader) {
+        return cache.get(courseId, k -> List.copyOf(loader.get()));
+    }
+    
+    /**
+     * Invalidate the cached roster of a course.
+     * 
+     * @param courseId The course ID
+     */
+    public void invalidate(String courseId) {
+        cache.invalidate(courseId);
+    }
+    
+    @EventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        invalidate(event.courseId());
+    }
+    
+    /**
+     * One person on a course roster.
+     */
+    public record Member(String userId, String name, String email,
+                         Enrollment.CourseRole courseRole, Enrollment.EnrollmentStatus status) {
+    }
+}
@@ -5,18 +5,32 @@ import com.courseflow.common.error.ApiException;
 import com.courseflow.courses.dto.CoursePeopleResponse;
 import com.courseflow.courses.dto.CourseRequest;
 import com.courseflow.courses.dto.CourseResponse;
+import com.courseflow.courses.dto.RosterImportResponse;
 import com.courseflow.courses.model.Course;
 import com.courseflow.courses.repository.CourseRepository;
 import com.courseflow.enrollments.model.Enrollment;
 import com.courseflow.enrollments.service.EnrollmentService;
+import com.courseflow.enrollments.service.RosterImportService;
 import com.courseflow.users.model.User;
-import com.courseflow.users.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -29,8 +43,13 @@ public class CourseService {
     
     private final CourseRepository courseRepository;
     private final EnrollmentService enrollmentService;
-    private final UserRepository userRepository;
     private final AuthService authService;
+    private final CourseRosterCache courseRosterCache;
+    private final RosterImportService rosterImportService;
+    private final MongoTemplate mongoTemplate;
+    
+    @Value("${courses.roster.page-size.max:500}")
+    private int maxPageSize;
     
     /**
      * Create a new course and automatically enroll the creator as instructor.
@@ -172,46 +191,94 @@ public class CourseService {
     }
     
     /**
-     * Get all enrolled users for a course.
+     * Get the people enrolled in a course, sorted by name, optionally filtered and paginated.
+     * The roster is served from a cache invalidated on enrollment changes; on a miss it is
+     * loaded with two queries (enrollments, then all users at once with only id, name and email).
      * 
      * @param courseId Course ID
+     * @param search Case-insensitive text matched against name and email (optional)
+     * @param role Course role filter (optional)
+     * @param page Zero-based page number (optional, default 0)
+     * @param size Page size (optional; all matching people when absent, capped at the configured maximum)
      * @return Course people response with user information
      */
-    public CoursePeopleResponse getCoursePeople(String courseId) {
+    public CoursePeopleResponse getCoursePeople(String courseId, String search, Enrollment.CourseRole role,
+                                                Integer page, Integer size) {
         User currentUser = authService.getCurrentUser();
         
         // Verify enrollment
         enrollmentService.verifyEnrollment(courseId, currentUser.getId());
         
-        // Get all enrollments for the course
-        List<Enrollment> enrollments = enrollmentService.getCourseEnrollments(courseId);
+        List<CourseRosterCache.Member> roster = courseRosterCache.get(courseId, () -> loadRoster(courseId));
         
-        // Map enrollments to person info with user details
-        List<CoursePeopleResponse.PersonInfo> people = enrollments.stream()
-                .map(enrollment -> {
-                    User user = userRepository.findById(enrollment.getUserId())
-                            .orElse(null);
-                    
-                    if (user == null) {
-                        return null;
-                    }
-                    
-                    return CoursePeopleResponse.PersonInfo.builder()
-                            .userId(user.getId())
-                            .name(user.getName())
-                            .email(user.getEmail())
-                            .courseRole(enrollment.getCourseRole())
-                            .status(enrollment.getStatus())
-                            .build();
-                })
-                .filter(java.util.Objects::nonNull)
+        String needle = search != null && !search.isBlank() ? search.trim().toLowerCase(Locale.ROOT) : null;
+        List<CourseRosterCache.Member> matching = roster.stream()
+                .filter(member -> role == null || member.courseRole() == role)
+                .filter(member -> needle == null || contains(member.name(), needle) || contains(member.email(), needle))
+                .collect(Collectors.toList());
+        
+        int pageNumber = page != null ? Math.max(0, page) : 0;
+        Integer pageSize = size != null ? Math.max(1, Math.min(size, maxPageSize)) : null;
+        List<CourseRosterCache.Member> selected = matching;
+        if (pageSize != null) {
+            int from = (int) Math.min((long) pageNumber * pageSize, matching.size());
+            selected = matching.subList(from, Math.min(from + pageSize, matching.size()));
+        }
+        
+        List<CoursePeopleResponse.PersonInfo> people = selected.stream()
+                .map(member -> CoursePeopleResponse.PersonInfo.builder()
+                        .userId(member.userId())
+                        .name(member.name())
+                        .email(member.email())
+                        .courseRole(member.courseRole())
+                        .status(member.status())
+                        .build())
                 .collect(Collectors.toList());
         
         return CoursePeopleResponse.builder()
                 .people(people)
+                .total(matching.size())
+                .page(pageSize != null ? pageNumber : null)
+                .size(pageSize)
                 .build();
     }
     
+    /**
+     * Load a course roster sorted by name: one query for the enrollments, one $in query for
+     * the users with only name and email. Enrollments of deleted users are left out.
+     */
+    private List<CourseRosterCache.Member> loadRoster(String courseId) {
+        Query enrollmentQuery = new Query(Criteria.where("courseId").is(courseId));
+        enrollmentQuery.fields().include("userId", "courseRole", "status");
+        List<Enrollment> enrollments = mongoTemplate.find(enrollmentQuery, Enrollment.class);
+        if (enrollments.isEmpty()) {
+            return List.of();
+        }
+        
+        Query userQuery = new Query(Criteria.where("_id").in(enrollments.stream()
+                .map(Enrollment::getUserId)
+                .collect(Collectors.toSet())));
+        userQuery.fields().include("name", "email");
+        Map<String, User> users = mongoTemplate.find(userQuery, User.class).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        
+        return enrollments.stream()
+                .filter(enrollment -> users.containsKey(enrollment.getUserId()))
+                .map(enrollment -> {
+                    User user = users.get(enrollment.getUserId());
+                    return new CourseRosterCache.Member(user.getId(), user.getName(), user.getEmail(),
+                            enrollment.getCourseRole(), enrollment.getStatus());
+                })
+                .sorted(Comparator.comparing(CourseRosterCache.Member::name,
+                                Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                        .thenComparing(CourseRosterCache.Member::userId))
+                .collect(Collectors.toList());
+    }
+    
+    private static boolean contains(String value, String needle) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(needle);
+    }
+    
     /**
      * Enroll a student in a course. Only instructors/admins can enroll students.
      * 
@@ -235,6 +302,48 @@ public class CourseService {
         return enrollmentService.enrollUser(courseId, userId, Enrollment.CourseRole.STUDENT);
     }
     
+    /**
+     * Import a roster from a CSV file (email or user ID per row, optional role column).
+     * Only instructors/admins can import rosters; TAs can import students only.
+     * 
+     * @param courseId Course ID
+     * @param file CSV file
+     * @param defaultRole Role for rows without a role column
+     * @return Per-row import report
+     */
+    public RosterImportResponse importRoster(String courseId, MultipartFile file, Enrollment.CourseRole defaultRole) {
+        User currentUser = authService.getCurrentUser();
+        
+        // Check permission: must be instructor/TA of the course or admin
+        boolean isInstructor = enrollmentService.checkInstructorRole(courseId, currentUser.getId());
+        boolean isAdmin = currentUser.getRole() == User.UserRole.ADMIN;
+        
+        if (!isInstructor && !isAdmin) {
+            throw new ApiException("INSUFFICIENT_PERMISSIONS", 
+                    "Only instructors and admins can import rosters", 403);
+        }
+        
+        if (!courseRepository.existsById(courseId)) {
+            throw new ApiException("COURSE_NOT_FOUND", "Course not found", 404);
+        }
+        
+        // Only instructors and admins may enroll TAs and instructors
+        boolean allowStaffRoles = isAdmin || enrollmentService.checkCourseInstructorRole(courseId, currentUser.getId());
+        
+        if (file == null || file.isEmpty()) {
+            throw new ApiException("EMPTY_ROSTER", "Roster file is empty", 400);
+        }
+        
+        // Read line by line from the uploaded part; the file is never loaded as a whole
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            return rosterImportService.importRoster(courseId, reader, 
+                    defaultRole != null ? defaultRole : Enrollment.CourseRole.STUDENT, allowStaffRoles);
+        } catch (IOException e) {
+            throw new ApiException("ROSTER_READ_FAILED", "Could not read roster file", e);
+        }
+    }
+    
     /**
      * Map Course entity to CourseResponse DTO.
      */
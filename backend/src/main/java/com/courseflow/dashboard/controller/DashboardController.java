@@ -0,0 +1,51 @@
+package com.courseflow.dashboard.controller;
+
+import com.courseflow.calendar.dto.DueItemResponse;
+import com.courseflow.calendar.service.DueItemService;
+import com.courseflow.common.dto.ApiResponse;
+import com.courseflow.dashboard.dto.DashboardResponse;
+import com.courseflow.dashboard.service.DashboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Controller for endpoints about the current user.
+ */
+@RestController
+@RequestMapping("/me")
+@RequiredArgsConstructor
+@Tag(name = "Me", description = "Current user endpoints")
+public class DashboardController {
+    
+    private final DashboardService dashboardService;
+    private final DueItemService dueItemService;
+    
+    @GetMapping("/dashboard")
+    @Operation(summary = "Get my dashboard",
+            description = "Get the current user's courses with grade totals, upcoming assignments and recent grades in one call")
+    public ResponseEntity<ApiResponse<DashboardResponse>> getMyDashboard() {
+        DashboardResponse dashboard = dashboardService.getMyDashboard();
+        return ResponseEntity.ok(ApiResponse.success(dashboard));
+    }
+    
+    @GetMapping("/upcoming")
+    @Operation(summary = "Get my upcoming items",
+            description = "Get dated assignments and module items of all my courses due between 'from' (default now) " +
+                    "and 'to' (default two weeks later), soonest first")
+    public ResponseEntity<ApiResponse<List<DueItemResponse>>> getMyUpcoming(
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) Integer limit) {
+        List<DueItemResponse> items = dueItemService.getMyDueItems(from, to, limit);
+        return ResponseEntity.ok(ApiResponse.success(items));
+    }
+}
@@ -0,0 +1,63 @@
+package com.courseflow.dashboard.dto;
+
+import com.courseflow.calendar.dto.DueItemResponse;
+import com.courseflow.enrollments.model.Enrollment;
+import com.courseflow.grades.dto.GradebookResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Response DTO for the dashboard endpoint: everything the dashboard screen shows in one payload.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardResponse {
+    
+    private List<CourseCard> courses;
+    private List<DueItemResponse> upcoming;
+    private List<RecentGrade> recentGrades;
+    private Instant generatedAt;
+    
+    /**
+     * One course the user is enrolled in, with the user's role and running total.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CourseCard {
+        private String id;
+        private String title;
+        private String code;
+        private String term;
+        private String section;
+        private Boolean published;
+        private Enrollment.CourseRole courseRole;
+        private GradebookResponse.TotalResponse total; // null unless the user has a gradebook in the course
+    }
+    
+    /**
+     * Recently graded item from the user's gradebooks.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RecentGrade {
+        private String courseId;
+        private String courseTitle;
+        private String type; // "ASSIGNMENT" or "QUIZ"
+        private String itemId;
+        private String title;
+        private Double score;
+        private Double points;
+        private Instant gradedAt;
+    }
+}
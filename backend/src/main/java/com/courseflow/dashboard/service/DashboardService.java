@@ -0,0 +1,254 @@
+package com.courseflow.dashboard.service;
+
+import com.courseflow.auth.service.AuthService;
+import com.courseflow.calendar.dto.DueItemResponse;
+import com.courseflow.calendar.model.DueItem;
+import com.courseflow.calendar.service.DueItemService;
+import com.courseflow.courses.model.Course;
+import com.courseflow.dashboard.dto.DashboardResponse;
+import com.courseflow.enrollments.model.Enrollment;
+import com.courseflow.enrollments.service.EnrollmentChangedEvent;
+import com.courseflow.enrollments.service.EnrollmentService;
+import com.courseflow.grades.dto.GradebookResponse;
+import com.courseflow.grades.model.Gradebook;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the dashboard of the current user in one server-side pass, replacing the per-course
+ * requests the dashboard screen used to make. After the user's enrollments are read, courses,
+ * upcoming items (from the due-item index) and gradebooks are fetched in parallel; the result is
+ * kept in a short-lived per-user cache, dropped when the user's enrollments change.
+ */
+@Service
+public class DashboardService {
+    
+    private final AuthService authService;
+    private final EnrollmentService enrollmentService;
+    private final DueItemService dueItemService;
+    private final MongoTemplate mongoTemplate;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, DashboardResponse> cache;
+    private final Timer buildLatency;
+    private final Duration upcomingWindow;
+    private final int upcomingLimit;
+    private final int recentGradesLimit;
+    
+    public DashboardService(
+            AuthService authService,
+            EnrollmentService enrollmentService,
+            DueItemService dueItemService,
+            MongoTemplate mongoTemplate,
+            @Value("${dashboard.upcoming.window-days:14}") long upcomingWindowDays,
+            @Value("${dashboard.upcoming.limit:20}") int upcomingLimit,
+            @Value("${dashboard.recent-grades.limit:10}") int recentGradesLimit,
+            @Value("${dashboard.cache.ttl:30000}") long cacheTtlMs,
+            @Value("${dashboard.cache.maximum-size:10000}") long cacheMaximumSize,
+            @Value("${dashboard.fetch.pool-size:8}") int fetchPoolSize,
+            MeterRegistry meterRegistry) {
+        this.authService = authService;
+        this.enrollmentService = enrollmentService;
+        this.dueItemService = dueItemService;
+        this.mongoTemplate = mongoTemplate;
+        this.upcomingWindow = Duration.ofDays(upcomingWindowDays);
+        this.upcomingLimit = upcomingLimit;
+        this.recentGradesLimit = recentGradesLimit;
+        
+        // Saturation runs the fetch on the request thread: slower, but never rejected
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                fetchPoolSize, fetchPoolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fetchPoolSize * 4),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-fetch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(Duration.ofMillis(cacheTtlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "dashboard");
+        this.buildLatency = Timer.builder("dashboard.build.latency")
+                .description("Time spent building a dashboard on a cache miss")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Get the dashboard of the current user.
+     * 
+     * @return Courses with totals, upcoming items and recent grades
+     */
+    public DashboardResponse getMyDashboard() {
+        String userId = authService.getCurrentUser().getId();
+        return cache.get(userId, id -> buildLatency.record(() -> buildDashboard(id)));
+    }
+    
+    @EventListener
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        cache.invalidateAll(event.userIds());
+    }
+    
+    private DashboardResponse buildDashboard(String userId) {
+        Instant now = Instant.now();
+        Map<String, Enrollment.CourseRole> roles = enrollmentService.getUserEnrollments(userId).stream()
+                .collect(Collectors.toMap(Enrollment::getCourseId,
+                        enrollment -> enrollment.getCourseRole() != null
+                                ? enrollment.getCourseRole()
+                                : Enrollment.CourseRole.STUDENT,
+                        (a, b) -> a));
+        if (roles.isEmpty()) {
+            return DashboardResponse.builder()
+                    .courses(List.of())
+                    .upcoming(List.of())
+                    .recentGrades(List.of())
+                    .generatedAt(now)
+                    .build();
+        }
+        Set<String> courseIds = roles.keySet();
+        
+        CompletableFuture<List<Course>> coursesFuture = fetch(() -> findCourses(courseIds));
+        CompletableFuture<List<DueItem>> dueItemsFuture = fetch(
+                () -> dueItemService.findDueItems(roles, now, now.plus(upcomingWindow), upcomingLimit));
+        CompletableFuture<List<Gradebook>> gradebooksFuture = fetch(() -> findGradebooks(userId, courseIds));
+        CompletableFuture<Set<String>> submittedFuture = dueItemsFuture.thenCompose(
+                dueItems -> fetch(() -> dueItemService.findSubmittedAssignmentIds(userId, dueItems)));
+        
+        List<Course> courses = join(coursesFuture);
+        List<DueItem> dueItems = join(dueItemsFuture);
+        List<Gradebook> gradebooks = join(gradebooksFuture);
+        Set<String> submitted = join(submittedFuture);
+        
+        Map<String, String> courseTitles = new HashMap<>();
+        courses.forEach(course -> courseTitles.put(course.getId(), course.getTitle()));
+        Map<String, Gradebook> gradebooksByCourse = gradebooks.stream()
+                .collect(Collectors.toMap(Gradebook::getCourseId, Function.identity(), (a, b) -> a));
+        
+        List<DashboardResponse.CourseCard> cards = courses.stream()
+                .sorted(Comparator.comparing(Course::getTitle, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                .map(course -> DashboardResponse.CourseCard.builder()
+                        .id(course.getId())
+                        .title(course.getTitle())
+                        .code(course.getCode())
+                        .term(course.getTerm())
+                        .section(course.getSection())
+                        .published(course.getPublished())
+                        .courseRole(roles.get(course.getId()))
+                        .total(mapTotal(gradebooksByCourse.get(course.getId())))
+                        .build())
+                .collect(Collectors.toList());
+        
+        List<DueItemResponse> upcoming = dueItems.stream()
+                .map(item -> dueItemService.mapToResponse(item, courseTitles.get(item.getCourseId()), submitted))
+                .collect(Collectors.toList());
+        
+        return DashboardResponse.builder()
+                .courses(cards)
+                .upcoming(upcoming)
+                .recentGrades(recentGrades(gradebooks, courseTitles))
+                .generatedAt(now)
+                .build();
+    }
+    
+    private List<Course> findCourses(Set<String> courseIds) {
+        Query query = new Query(Criteria.where("_id").in(courseIds));
+        query.fields().include("title", "code", "term", "section", "published");
+        return mongoTemplate.find(query, Course.class);
+    }
+    
+    private List<Gradebook> findGradebooks(String userId, Set<String> courseIds) {
+        Query query = new Query(Criteria.where("studentId").is(userId).and("courseId").in(courseIds));
+        query.fields().include("courseId", "items", "total");
+        return mongoTemplate.find(query, Gradebook.class);
+    }
+    
+    private List<DashboardResponse.RecentGrade> recentGrades(List<Gradebook> gradebooks, Map<String, String> courseTitles) {
+        List<DashboardResponse.RecentGrade> grades = new ArrayList<>();
+        for (Gradebook gradebook : gradebooks) {
+            for (Gradebook.GradeItem item : gradebook.getItems()) {
+                if (item.getScore() == null || item.getGradedAt() == null) {
+                    continue;
+                }
+                grades.add(DashboardResponse.RecentGrade.builder()
+                        .courseId(gradebook.getCourseId())
+                        .courseTitle(courseTitles.get(gradebook.getCourseId()))
+                        .type(item.getType() != null ? item.getType().name() : null)
+                        .itemId(item.getItemId())
+                        .title(item.getTitle())
+                        .score(item.getScore())
+                        .points(item.getPoints())
+                        .gradedAt(item.getGradedAt())
+                        .build());
+            }
+        }
+        grades.sort(Comparator.comparing(DashboardResponse.RecentGrade::getGradedAt).reversed());
+        return grades.size() > recentGradesLimit ? new ArrayList<>(grades.subList(0, recentGradesLimit)) : grades;
+    }
+    
+    private GradebookResponse.TotalResponse mapTotal(Gradebook gradebook) {
+        if (gradebook == null || gradebook.getTotal() == null) {
+            return null;
+        }
+        return GradebookResponse.TotalResponse.builder()
+                .earned(gradebook.getTotal().getEarned())
+                .possible(gradebook.getTotal().getPossible())
+                .percent(gradebook.getTotal().getPercent())
+                .build();
+    }
+    
+    private <T> CompletableFuture<T> fetch(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
+    
+    /**
+     * Wait for a fetch and rethrow its failure unwrapped, so data access errors reach the
+     * global exception handler as they would from a sequential call.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -21,6 +21,8 @@ import java.time.Instant;
 @AllArgsConstructor
 @Document(collection = "enrollments")
 @CompoundIndex(name = "course_user_idx", def = "{'courseId': 1, 'userId': 1}", unique = true)
+@CompoundIndex(name = "user_status_idx", def = "{'userId': 1, 'status': 1}")
+@CompoundIndex(name = "course_role_idx", def = "{'courseId': 1, 'courseRole': 1}")
 public class Enrollment {
     
     @Id
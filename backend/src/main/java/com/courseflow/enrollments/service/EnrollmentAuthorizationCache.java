@@ -0,0 +1,106 @@
+package com.courseflow.enrollments.service;
+
+import com.courseflow.enrollments.model.Enrollment;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-based cache of (userId, courseId) to (role, status) used by enrollment
+ * and instructor permission checks. Missing enrollments are cached as well, so repeated
+ * denials do not hit MongoDB either. Entries must be invalidated whenever an enrollment
+ * is created, dropped or changes role.
+ */
+@Component
+public class EnrollmentAuthorizationCache {
+    
+    private final Cache<String, CourseAccess> cache;
+    
+    public EnrollmentAuthorizationCache(
+            @Value("${enrollments.authorization-cache.maximum-size:100000}") long maximumSize,
+            @Value("${enrollments.authorization-cache.ttl:60000}") long ttlMs,
+            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "enrollmentAuthorization");
+    }
+    
+    /**
+     * Get the cached access for a user in a course, loading it on a miss.
+     * 
+     * @param courseId The course ID
+     * @param userId The user ID
+     * @param loader Loads the access from the enrollment collection
+     * @return Course access ({@link CourseAccess#NONE} if not enrolled)
+     */
+    public CourseAccess get(String courseId, String userId, Supplier<CourseAccess> loader) {
+        return cache.get(key(courseId, userId), k -> loader.get());
+    }
+    
+    /**
+     * Invalidate the cached access for a user in a course.
+     * 
+     * @param courseId The course ID
+     * @param userId The user ID
+     */
+    public void invalidate(String courseId, String userId) {
+        cache.invalidate(key(courseId, userId));
+    }
+    
+    /**
+     * Invalidate every cached entry for a course (e.g. after a bulk roster change).
+     * 
+     * @param courseId The course ID
+     */
+    public void invalidateCourse(String courseId) {
+        String prefix = courseId + ":";
+        cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+    
+    private static String key(String courseId, String userId) {
+        return courseId + ":" + userId;
+    }
+    
+    /**
+     * Role and status of a user's enrollment in a course.
+     */
+    public record CourseAccess(Enrollment.CourseRole role, Enrollment.EnrollmentStatus status) {
+        
+        public static final CourseAccess NONE = new CourseAccess(null, null);
+        
+        public static CourseAccess of(Enrollment enrollment) {
+            return new CourseAccess(enrollment.getCourseRole(), enrollment.getStatus());
+        }
+        
+        /**
+         * Check if the enrollment exists and is active.
+         */
+        public boolean isActive() {
+            return status == Enrollment.EnrollmentStatus.ACTIVE;
+        }
+        
+        /**
+         * Check if the enrollment is active with instructor or TA role.
+         */
+        public boolean isInstructor() {
+            return isActive() &&
+                   (role == Enrollment.CourseRole.INSTRUCTOR || role == Enrollment.CourseRole.TA);
+        }
+        
+        /**
+         * Check if the enrollment is active with instructor role (TAs excluded).
+         */
+        public boolean isCourseInstructor() {
+            return isActive() && role == Enrollment.CourseRole.INSTRUCTOR;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.courseflow.enrollments.service;
+
+import java.util.Collection;
+
+/**
+ * Published after enrollments of a course were created, dropped or changed role,
+ * so read models derived from the roster can be invalidated.
+ * 
+ * @param courseId The course ID
+ * @param userIds The users whose enrollments changed
+ */
+public record EnrollmentChangedEvent(String courseId, Collection<String> userIds) {
+}
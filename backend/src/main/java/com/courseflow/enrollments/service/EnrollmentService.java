@@ -4,12 +4,20 @@ import com.courseflow.common.error.ApiException;
 import com.courseflow.courses.repository.CourseRepository;
 import com.courseflow.enrollments.model.Enrollment;
 import com.courseflow.enrollments.repository.EnrollmentRepository;
+import com.courseflow.security.UserTokenStateCache;
+import com.courseflow.users.model.User;
 import com.courseflow.users.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -23,6 +31,11 @@ public class EnrollmentService {
     private final EnrollmentRepository enrollmentRepository;
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
+    private final EnrollmentAuthorizationCache authorizationCache;
+    private final TokenCourseAccessResolver tokenCourseAccessResolver;
+    private final UserTokenStateCache userTokenStateCache;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Enroll a user in a course.
@@ -66,12 +79,17 @@ public class EnrollmentService {
                     .build();
             
             enrollment = enrollmentRepository.save(enrollment);
+            bumpEnrollmentVersion(userId);
+            eventPublisher.publishEvent(new EnrollmentChangedEvent(courseId, List.of(userId)));
             log.info("User {} enrolled in course {} with role {}", userId, courseId, courseRole);
             
             return enrollment;
         } catch (DuplicateKeyException e) {
             throw new ApiException("ENROLLMENT_ALREADY_EXISTS", 
                     "User is already enrolled in this course", 409);
+        } finally {
+            // Drop any cached "not enrolled" answer for this user
+            authorizationCache.invalidate(courseId, userId);
         }
     }
     
@@ -99,9 +117,7 @@ public class EnrollmentService {
      * @return true if user is enrolled, false otherwise
      */
     public boolean checkEnrollment(String courseId, String userId) {
-        return enrollmentRepository.findByCourseIdAndUserId(courseId, userId)
-                .map(enrollment -> enrollment.getStatus() == Enrollment.EnrollmentStatus.ACTIVE)
-                .orElse(false);
+        return getCourseAccess(courseId, userId).isActive();
     }
     
     /**
@@ -126,13 +142,19 @@ public class EnrollmentService {
      * @return true if user is instructor or TA, false otherwise
      */
     public boolean checkInstructorRole(String courseId, String userId) {
-        return enrollmentRepository.findByCourseIdAndUserId(courseId, userId)
-                .map(enrollment -> {
-                    Enrollment.CourseRole role = enrollment.getCourseRole();
-                    return enrollment.getStatus() == Enrollment.EnrollmentStatus.ACTIVE &&
-                           (role == Enrollment.CourseRole.INSTRUCTOR || role == Enrollment.CourseRole.TA);
-                })
-                .orElse(false);
+        return getCourseAccess(courseId, userId).isInstructor();
+    }
+    
+    /**
+     * Check if a user has instructor role in a course. Unlike {@link #checkInstructorRole},
+     * TAs do not qualify; used where staff roles are handed out.
+     * 
+     * @param courseId The course ID
+     * @param userId The user ID
+     * @return true if user is instructor, false otherwise
+     */
+    public boolean checkCourseInstructorRole(String courseId, String userId) {
+        return getCourseAccess(courseId, userId).isCourseInstructor();
     }
     
     /**
@@ -169,5 +191,57 @@ public class EnrollmentService {
     public List<Enrollment> getCourseEnrollmentsByRole(String courseId, Enrollment.CourseRole courseRole) {
         return enrollmentRepository.findByCourseIdAndCourseRole(courseId, courseRole);
     }
+    
+    /**
+     * Mark a user's enrollments as changed so course roles embedded in their
+     * previously issued access tokens are no longer trusted.
+     * Must be called from every path that creates, drops or changes an enrollment,
+     * together with publishing an {@link EnrollmentChangedEvent}.
+     * 
+     * @param userId The user ID
+     */
+    public void bumpEnrollmentVersion(String userId) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(userId)),
+                new Update().inc("enrollmentVersion", 1),
+                User.class);
+        userTokenStateCache.invalidate(userId);
+    }
+    
+    /**
+     * Bump the enrollment version of many users with a single update (see {@link #bumpEnrollmentVersion}).
+     * 
+     * @param userIds The user IDs
+     */
+    public void bumpEnrollmentVersions(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(userIds)),
+                new Update().inc("enrollmentVersion", 1),
+                User.class);
+        userIds.forEach(userTokenStateCache::invalidate);
+    }
+    
+    /**
+     * Get a user's role and status in a course. Answered from the access token's course roles
+     * when they are current, otherwise from the authorization cache so that enrollment and
+     * instructor checks in the same request share one lookup.
+     * 
+     * @param courseId The course ID
+     * @param userId The user ID
+     * @return Course access ({@link EnrollmentAuthorizationCache.CourseAccess#NONE} if not enrolled)
+     */
+    private EnrollmentAuthorizationCache.CourseAccess getCourseAccess(String courseId, String userId) {
+        EnrollmentAuthorizationCache.CourseAccess fromToken = tokenCourseAccessResolver.resolve(courseId, userId);
+        if (fromToken != null) {
+            return fromToken;
+        }
+        
+        return authorizationCache.get(courseId, userId, () -> 
+                enrollmentRepository.findByCourseIdAndUserId(courseId, userId)
+                        .map(EnrollmentAuthorizationCache.CourseAccess::of)
+                        .orElse(EnrollmentAuthorizationCache.CourseAccess.NONE));
+    }
 }
-
@@ -0,0 +1,272 @@
+package com.courseflow.enrollments.service;
+
+import com.courseflow.common.util.CsvUtil;
+import com.courseflow.courses.dto.RosterImportResponse;
+import com.courseflow.enrollments.model.Enrollment;
+import com.courseflow.users.model.User;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk roster import from CSV.
+ * 
+ * The file is read line by line and processed in batches: users are resolved with one $in
+ * query per batch (by email, or by ID for values without "@"), existing enrollments with another,
+ * and the new enrollments are inserted with one unordered bulk write. Per batch the enrollment
+ * versions of the new members are bumped with a single update and an
+ * {@link EnrollmentChangedEvent} is published.
+ * 
+ * CSV layout: first column email or user ID, optional second column course role
+ * (STUDENT, TA or INSTRUCTOR); an optional header row is skipped. Rows with a TA or INSTRUCTOR
+ * role fail unless the caller allows staff roles.
+ */
+@Slf4j
+@Service
+public class RosterImportService {
+    
+    private static final Set<String> HEADER_NAMES = Set.of("email", "user", "id", "userid", "user_id");
+    
+    private final MongoTemplate mongoTemplate;
+    private final EnrollmentService enrollmentService;
+    private final EnrollmentAuthorizationCache authorizationCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    
+    public RosterImportService(
+            MongoTemplate mongoTemplate,
+            EnrollmentService enrollmentService,
+            EnrollmentAuthorizationCache authorizationCache,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${enrollments.import.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.enrollmentService = enrollmentService;
+        this.authorizationCache = authorizationCache;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+    
+    /**
+     * Import a roster into a course. The caller checks the course and permissions.
+     * 
+     * @param courseId The course ID
+     * @param reader CSV content
+     * @param defaultRole Role for rows without a role column
+     * @param allowStaffRoles Whether rows may enroll TAs and instructors (caller is instructor or admin)
+     * @return Per-row report in file order
+     */
+    public RosterImportResponse importRoster(String courseId, BufferedReader reader, Enrollment.CourseRole defaultRole,
+            boolean allowStaffRoles) throws IOException {
+        List<RosterImportResponse.RowResult> results = new ArrayList<>();
+        List<Row> batch = new ArrayList<>(batchSize);
+        Set<String> seenUserIds = new HashSet<>();
+        boolean firstRecord = true;
+        int lineNumber = 0;
+        
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                // Byte order mark written by spreadsheet exports
+                line = line.substring(1);
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            
+            List<String> cells = CsvUtil.parseLine(line);
+            String user = cells.get(0).trim();
+            if (firstRecord) {
+                firstRecord = false;
+                if (HEADER_NAMES.contains(user.toLowerCase(Locale.ROOT))) {
+                    continue;
+                }
+            }
+            
+            RosterImportResponse.RowResult result = RosterImportResponse.RowResult.builder()
+                    .line(lineNumber)
+                    .user(user)
+                    .build();
+            results.add(result);
+            
+            Enrollment.CourseRole role = defaultRole;
+            String roleCell = cells.size() > 1 ? cells.get(1).trim() : "";
+            if (!roleCell.isEmpty()) {
+                try {
+                    role = Enrollment.CourseRole.valueOf(roleCell.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    fail(result, "INVALID_ROLE", "Unknown course role: " + roleCell);
+                    continue;
+                }
+            }
+            if (role != Enrollment.CourseRole.STUDENT && !allowStaffRoles) {
+                fail(result, "ROLE_NOT_ALLOWED", "Only instructors and admins can enroll users as " + role);
+                continue;
+            }
+            if (user.isEmpty()) {
+                fail(result, "MISSING_USER", "No email or user ID in this row");
+                continue;
+            }
+            
+            batch.add(new Row(result, user, role));
+            if (batch.size() >= batchSize) {
+                processBatch(courseId, batch, seenUserIds);
+                batch.clear();
+            }
+        }
+        processBatch(courseId, batch, seenUserIds);
+        
+        RosterImportResponse response = RosterImportResponse.builder()
+                .total(results.size())
+                .enrolled(count(results, "ENROLLED"))
+                .alreadyEnrolled(count(results, "ALREADY_ENROLLED"))
+                .failed(count(results, "FAILED"))
+                .rows(results)
+                .build();
+        log.info("Roster import into course {}: {} rows, {} enrolled, {} already enrolled, {} failed",
+                courseId, response.getTotal(), response.getEnrolled(), response.getAlreadyEnrolled(), response.getFailed());
+        return response;
+    }
+    
+    private void processBatch(String courseId, List<Row> batch, Set<String> seenUserIds) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        // Resolve emails and IDs of the whole batch with one query (only id and email)
+        Set<String> emails = new HashSet<>();
+        Set<String> ids = new HashSet<>();
+        for (Row row : batch) {
+            (row.isEmail() ? emails : ids).add(row.user());
+        }
+        List<Criteria> lookups = new ArrayList<>();
+        if (!emails.isEmpty()) {
+            lookups.add(Criteria.where("email").in(emails));
+        }
+        if (!ids.isEmpty()) {
+            lookups.add(Criteria.where("_id").in(ids));
+        }
+        Query userQuery = new Query(lookups.size() == 1 ? lookups.get(0) : new Criteria().orOperator(lookups));
+        userQuery.fields().include("email");
+        Map<String, String> userIdsByEmail = new HashMap<>();
+        Set<String> existingUserIds = new HashSet<>();
+        for (User user : mongoTemplate.find(userQuery, User.class)) {
+            existingUserIds.add(user.getId());
+            if (user.getEmail() != null) {
+                userIdsByEmail.put(user.getEmail(), user.getId());
+            }
+        }
+        
+        List<Row> resolved = new ArrayList<>();
+        for (Row row : batch) {
+            String userId = row.isEmail() ? userIdsByEmail.get(row.user())
+                    : existingUserIds.contains(row.user()) ? row.user() : null;
+            if (userId == null) {
+                fail(row.result(), "USER_NOT_FOUND", "No user with this " + (row.isEmail() ? "email" : "ID"));
+            } else if (!seenUserIds.add(userId)) {
+                row.result().setUserId(userId);
+                fail(row.result(), "DUPLICATE_ROW", "User appears more than once in this file");
+            } else {
+                row.result().setUserId(userId);
+                resolved.add(row);
+            }
+        }
+        if (resolved.isEmpty()) {
+            return;
+        }
+        
+        // Diff against existing enrollments in memory
+        Query enrollmentQuery = new Query(Criteria.where("courseId").is(courseId)
+                .and("userId").in(resolved.stream().map(row -> row.result().getUserId()).toList()));
+        enrollmentQuery.fields().include("userId");
+        Set<String> enrolledUserIds = mongoTemplate.find(enrollmentQuery, Enrollment.class).stream()
+                .map(Enrollment::getUserId)
+                .collect(Collectors.toSet());
+        
+        List<Row> inserts = new ArrayList<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Enrollment.class);
+        for (Row row : resolved) {
+            if (enrolledUserIds.contains(row.result().getUserId())) {
+                row.result().setStatus("ALREADY_ENROLLED");
+                continue;
+            }
+            bulk.insert(Enrollment.builder()
+                    .courseId(courseId)
+                    .userId(row.result().getUserId())
+                    .courseRole(row.role())
+                    .status(Enrollment.EnrollmentStatus.ACTIVE)
+                    .build());
+            inserts.add(row);
+        }
+        if (inserts.isEmpty()) {
+            return;
+        }
+        
+        // One unordered bulk insert; failed writes are reported per row
+        Set<Integer> failedIndexes = new HashSet<>();
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failedIndexes.add(error.getIndex());
+                RosterImportResponse.RowResult result = inserts.get(error.getIndex()).result();
+                if (error.getCode() == 11000) {
+                    // Enrolled concurrently since the diff
+                    result.setStatus("ALREADY_ENROLLED");
+                } else {
+                    fail(result, "WRITE_FAILED", error.getMessage());
+                }
+            }
+        }
+        
+        List<String> newMembers = new ArrayList<>();
+        for (int i = 0; i < inserts.size(); i++) {
+            if (!failedIndexes.contains(i)) {
+                inserts.get(i).result().setStatus("ENROLLED");
+                newMembers.add(inserts.get(i).result().getUserId());
+            }
+        }
+        if (newMembers.isEmpty()) {
+            return;
+        }
+        
+        enrollmentService.bumpEnrollmentVersions(newMembers);
+        newMembers.forEach(userId -> authorizationCache.invalidate(courseId, userId));
+        eventPublisher.publishEvent(new EnrollmentChangedEvent(courseId, newMembers));
+    }
+    
+    private static void fail(RosterImportResponse.RowResult result, String errorCode, String message) {
+        result.setStatus("FAILED");
+        result.setErrorCode(errorCode);
+        result.setMessage(message);
+    }
+    
+    private static int count(List<RosterImportResponse.RowResult> results, String status) {
+        return (int) results.stream().filter(result -> status.equals(result.getStatus())).count();
+    }
+    
+    private record Row(RosterImportResponse.RowResult result, String user, Enrollment.CourseRole role) {
+        
+        boolean isEmail() {
+            return user.indexOf('@') >= 0;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.courseflow.enrollments.service;
+
+import com.courseflow.enrollments.model.Enrollment;
+import com.courseflow.security.CourseRoleClaims;
+import com.courseflow.security.SecurityUserDetails;
+import com.courseflow.security.UserTokenStateCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Answers course permission checks from the course roles embedded in the current access token.
+ * The token is only trusted while its enrollment version stamp matches the user's current
+ * enrollment version (an in-memory check); otherwise callers fall back to the enrollment lookup.
+ */
+@Component
+public class TokenCourseAccessResolver {
+    
+    private final UserTokenStateCache userTokenStateCache;
+    private final Counter answered;
+    private final Counter stale;
+    
+    public TokenCourseAccessResolver(UserTokenStateCache userTokenStateCache, MeterRegistry meterRegistry) {
+        this.userTokenStateCache = userTokenStateCache;
+        this.answered = Counter.builder("enrollments.authorization.token")
+                .tag("result", "answered")
+                .description("Course permission checks answered from access token claims")
+                .register(meterRegistry);
+        this.stale = Counter.builder("enrollments.authorization.token")
+                .tag("result", "stale")
+                .description("Course permission checks whose token claims were outdated")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Resolve a user's access to a course from the current request's token.
+     * 
+     * @param courseId The course ID
+     * @param userId The user ID being checked
+     * @return Course access, or null if the token cannot answer (other user, no claims, or stale stamp)
+     */
+    public EnrollmentAuthorizationCache.CourseAccess resolve(String courseId, String userId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof SecurityUserDetails principal)) {
+            return null;
+        }
+        
+        CourseRoleClaims claims = principal.getCourseRoleClaims();
+        if (claims == null || !principal.getId().equals(userId)) {
+            return null;
+        }
+        
+        if (claims.getEnrollmentVersion() != userTokenStateCache.get(userId).enrollmentVersion()) {
+            stale.increment();
+            return null;
+        }
+        
+        answered.increment();
+        Enrollment.CourseRole role = claims.roleFor(courseId);
+        return role != null
+                ? new EnrollmentAuthorizationCache.CourseAccess(role, Enrollment.EnrollmentStatus.ACTIVE)
+                : EnrollmentAuthorizationCache.CourseAccess.NONE;
+    }
+}
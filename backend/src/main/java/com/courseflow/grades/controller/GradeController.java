@@ -4,15 +4,22 @@ import com.courseflow.auth.service.AuthService;
 import com.courseflow.common.dto.ApiResponse;
 import com.courseflow.common.error.ApiException;
 import com.courseflow.enrollments.service.EnrollmentService;
+import com.courseflow.grades.dto.GradeMatrix;
+import com.courseflow.grades.dto.GradeStatsResponse;
 import com.courseflow.grades.dto.GradebookResponse;
+import com.courseflow.grades.service.GradeStatsService;
+import com.courseflow.grades.service.GradebookExportService;
 import com.courseflow.grades.service.GradebookService;
 import com.courseflow.users.model.User;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -25,6 +32,8 @@ import java.util.List;
 public class GradeController {
     
     private final GradebookService gradebookService;
+    private final GradebookExportService gradebookExportService;
+    private final GradeStatsService gradeStatsService;
     private final AuthService authService;
     private final EnrollmentService enrollmentService;
     
@@ -63,6 +72,77 @@ public class GradeController {
         return ResponseEntity.ok(ApiResponse.success(gradebooks));
     }
     
+    @GetMapping("/matrix")
+    @Operation(summary = "Get grade matrix", description = "Get the course gradebook as a columnar students x assignments matrix. Only instructors and admins can view the grade matrix.")
+    public ResponseEntity<ApiResponse<GradeMatrix>> getGradeMatrix(
+            @PathVariable String courseId) {
+        User currentUser = authService.getCurrentUser();
+        
+        // Check permission: must be instructor/TA of the course or admin
+        boolean isInstructor = enrollmentService.checkInstructorRole(courseId, currentUser.getId());
+        boolean isAdmin = currentUser.getRole() == User.UserRole.ADMIN;
+        
+        if (!isInstructor && !isAdmin) {
+            throw new ApiException("INSUFFICIENT_PERMISSIONS", 
+                    "Only instructors and admins can view the grade matrix", 403);
+        }
+        
+        GradeMatrix matrix = gradebookService.getGradeMatrix(courseId);
+        return ResponseEntity.ok(ApiResponse.success(matrix));
+    }
+    
+    @GetMapping("/stats")
+    @Operation(summary = "Get grade statistics", description = "Get mean, standard deviation, percentiles and histogram of the grades per assignment and for the whole course. Only instructors and admins can view grade statistics.")
+    public ResponseEntity<ApiResponse<GradeStatsResponse>> getGradeStats(
+            @PathVariable String courseId) {
+        User currentUser = authService.getCurrentUser();
+        
+        // Check permission: must be instructor/TA of the course or admin
+        boolean isInstructor = enrollmentService.checkInstructorRole(courseId, currentUser.getId());
+        boolean isAdmin = currentUser.getRole() == User.UserRole.ADMIN;
+        
+        if (!isInstructor && !isAdmin) {
+            throw new ApiException("INSUFFICIENT_PERMISSIONS", 
+                    "Only instructors and admins can view grade statistics", 403);
+        }
+        
+        GradeStatsResponse stats = gradeStatsService.getCourseStats(courseId);
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Export gradebooks", description = "Stream all gradebooks of a course as CSV (one column per assignment) or NDJSON. Only instructors and admins can export gradebooks.")
+    public void exportGradebooks(
+            @PathVariable String courseId,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        User currentUser = authService.getCurrentUser();
+        
+        // Check permission: must be instructor/TA of the course or admin
+        boolean isInstructor = enrollmentService.checkInstructorRole(courseId, currentUser.getId());
+        boolean isAdmin = currentUser.getRole() == User.UserRole.ADMIN;
+        
+        if (!isInstructor && !isAdmin) {
+            throw new ApiException("INSUFFICIENT_PERMISSIONS", 
+                    "Only instructors and admins can export gradebooks", 403);
+        }
+        
+        // Written directly to the response on the request thread, so rows go out as they are read
+        switch (format.toLowerCase()) {
+            case "csv" -> {
+                response.setContentType("text/csv;charset=UTF-8");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"gradebook-" + courseId + ".csv\"");
+                gradebookExportService.exportCsv(courseId, response.getOutputStream());
+            }
+            case "ndjson" -> {
+                response.setContentType("application/x-ndjson;charset=UTF-8");
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"gradebook-" + courseId + ".ndjson\"");
+                gradebookExportService.exportNdjson(courseId, response.getOutputStream());
+            }
+            default -> throw new ApiException("INVALID_FORMAT", "Export format must be csv or ndjson", 400);
+        }
+    }
+    
     @GetMapping("/{studentId}")
     @Operation(summary = "Get student gradebook", description = "Get gradebook for a specific student in a course. Only instructors and admins can view individual student gradebooks.")
     public ResponseEntity<ApiResponse<GradebookResponse>> getStudentGradebook(
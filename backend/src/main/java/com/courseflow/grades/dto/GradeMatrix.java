@@ -0,0 +1,225 @@
+package com.courseflow.grades.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Course gradebook as a students x items matrix in columnar form.
+ * 
+ * Items (id, title, points) are dictionary-encoded once instead of being repeated for every
+ * student. Each item column holds its scores in a primitive {@code double[]} indexed by student
+ * position, with a bitmap marking students that have no score (not graded yet). Totals are
+ * three more primitive columns. Serialized as:
+ * 
+ * <pre>
+ * { "courseId": ..., "items": [{"id", "title", "points"}], "students": [ids],
+ *   "columns": [{"scores": [..], "missing": "base64 bitmap"}],
+ *   "earned": [..], "possible": [..], "percent": [..] }
+ * </pre>
+ * 
+ * Bit {@code i} of a column's bitmap (byte {@code i / 8}, bit {@code i % 8}) is set when the
+ * score at position {@code i} is missing; the value in {@code scores} is then 0.
+ */
+@JsonPropertyOrder({"courseId", "items", "students", "columns", "earned", "possible", "percent"})
+public class GradeMatrix {
+    
+    private final String courseId;
+    private final List<Item> items;
+    private final String[] students;
+    private final Column[] columns;
+    private final double[] earned;
+    private final double[] possible;
+    private final double[] percent;
+    
+    private GradeMatrix(String courseId, List<Item> items, String[] students, Column[] columns,
+                        double[] earned, double[] possible, double[] percent) {
+        this.courseId = courseId;
+        this.items = items;
+        this.students = students;
+        this.columns = columns;
+        this.earned = earned;
+        this.possible = possible;
+        this.percent = percent;
+    }
+    
+    public String getCourseId() {
+        return courseId;
+    }
+    
+    public List<Item> getItems() {
+        return items;
+    }
+    
+    public String[] getStudents() {
+        return students;
+    }
+    
+    public Column[] getColumns() {
+        return columns;
+    }
+    
+    public double[] getEarned() {
+        return earned;
+    }
+    
+    public double[] getPossible() {
+        return possible;
+    }
+    
+    public double[] getPercent() {
+        return percent;
+    }
+    
+    /**
+     * Get a score by position.
+     * 
+     * @param student Student position
+     * @param item Item position
+     * @return The score, or null if the student has no score for the item
+     */
+    @JsonIgnore
+    public Double getScore(int student, int item) {
+        Column column = columns[item];
+        return column.isMissing(student) ? null : column.scores[student];
+    }
+    
+    /**
+     * Dictionary entry of a grade item.
+     */
+    public record Item(String id, String title, Double points) {
+    }
+    
+    /**
+     * Scores of one item for every student, with a bitmap of missing scores.
+     */
+    @JsonPropertyOrder({"scores", "missing"})
+    public static final class Column {
+        
+        private final double[] scores;
+        private final byte[] missing;
+        
+        private Column(double[] scores, byte[] missing) {
+            this.scores = scores;
+            this.missing = missing;
+        }
+        
+        public double[] getScores() {
+            return scores;
+        }
+        
+        /**
+         * Missing-score bitmap as base64 (JSON numbers cannot carry 64-bit words safely).
+         */
+        public String getMissing() {
+            return Base64.getEncoder().encodeToString(missing);
+        }
+        
+        boolean isMissing(int student) {
+            return (missing[student >>> 3] & (1 << (student & 7))) != 0;
+        }
+    }
+    
+    /**
+     * Builds a matrix row by row. Rows are appended into growable primitive arrays, so
+     * the number of students does not need to be known in advance.
+     */
+    public static final class Builder {
+        
+        private final String courseId;
+        private final List<Item> items;
+        private final Map<String, Integer> itemIndex = new HashMap<>();
+        
+        private String[] students = new String[64];
+        private double[][] scores;
+        private byte[][] missing;
+        private double[] earned = new double[64];
+        private double[] possible = new double[64];
+        private double[] percent = new double[64];
+        private int rows;
+        private int row = -1;
+        
+        /**
+         * @param courseId The course ID
+         * @param items The matrix columns, in display order
+         */
+        public Builder(String courseId, List<Item> items) {
+            this.courseId = courseId;
+            this.items = List.copyOf(items);
+            this.scores = new double[items.size()][64];
+            this.missing = new byte[items.size()][8];
+            for (int i = 0; i < items.size(); i++) {
+                itemIndex.put(items.get(i).id(), i);
+            }
+        }
+        
+        /**
+         * Start a new student row. Every score of the row starts out missing.
+         * 
+         * @param studentId The student ID
+         * @param earnedTotal Total points earned
+         * @param possibleTotal Total points possible
+         * @param percentTotal Percentage grade
+         * @return This builder
+         */
+        public Builder addStudent(String studentId, double earnedTotal, double possibleTotal, double percentTotal) {
+            if (rows == students.length) {
+                grow();
+            }
+            row = rows++;
+            students[row] = studentId;
+            earned[row] = earnedTotal;
+            possible[row] = possibleTotal;
+            percent[row] = percentTotal;
+            for (byte[] column : missing) {
+                column[row >>> 3] |= (byte) (1 << (row & 7));
+            }
+            return this;
+        }
+        
+        /**
+         * Set a score in the current row. Scores of items that are not matrix columns are ignored.
+         * 
+         * @param itemId The item ID
+         * @param score The score
+         * @return This builder
+         */
+        public Builder setScore(String itemId, double score) {
+            Integer column = itemIndex.get(itemId);
+            if (column != null && row >= 0) {
+                scores[column][row] = score;
+                missing[column][row >>> 3] &= (byte) ~(1 << (row & 7));
+            }
+            return this;
+        }
+        
+        /**
+         * Build the matrix, trimming the arrays to the number of rows.
+         */
+        public GradeMatrix build() {
+            Column[] columns = new Column[items.size()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = new Column(Arrays.copyOf(scores[i], rows), Arrays.copyOf(missing[i], (rows + 7) >>> 3));
+            }
+            return new GradeMatrix(courseId, items, Arrays.copyOf(students, rows), columns,
+                    Arrays.copyOf(earned, rows), Arrays.copyOf(possible, rows), Arrays.copyOf(percent, rows));
+        }
+        
+        private void grow() {
+            int capacity = students.length * 2;
+            students = Arrays.copyOf(students, capacity);
+            earned = Arrays.copyOf(earned, capacity);
+            possible = Arrays.copyOf(possible, capacity);
+            percent = Arrays.copyOf(percent, capacity);
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] = Arrays.copyOf(scores[i], capacity);
+                missing[i] = Arrays.copyOf(missing[i], capacity >>> 3);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.courseflow.grades.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for course grade statistics.
+ * Item statistics are in points of the item; course statistics merge all items in percent.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradeStatsResponse {
+    private String courseId;
+    private Summary course;
+    private List<Summary> items;
+    
+    /**
+     * Statistics of one graded item, or of the whole course.
+     * Mean and standard deviation are exact; min, max and percentiles are read from the
+     * histogram and accurate to 1% of the points.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Summary {
+        private String itemId;
+        private String title;
+        private Double points;
+        private long count;
+        private Double mean;
+        private Double standardDeviation;
+        private Double min;
+        private Double max;
+        private Double p25;
+        private Double median;
+        private Double p75;
+        private Double p90;
+        private long[] histogram; // 101 bins: count of scores per percent of points
+    }
+}
@@ -0,0 +1,74 @@
+package com.courseflow.grades.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running score statistics of one graded item (assignment) in a course.
+ * Maintained incrementally with $inc on every grade and regrade, so statistics are
+ * read without scanning gradebooks or submissions.
+ * 
+ * Moments (count, sum, sum of squares) give exact mean and variance. The histogram is a
+ * fixed-bin quantile sketch: bin {@code i} counts scores in [i%, i+1%) of the item's points
+ * (bin 100 holds full marks). Sketches of different items add bin by bin.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "grade_stats")
+@CompoundIndex(name = "course_item_idx", def = "{'courseId': 1, 'itemId': 1}", unique = true)
+public class GradeStats {
+    
+    /**
+     * Number of histogram bins (0-100 percent of points).
+     */
+    public static final int BINS = 101;
+    
+    @Id
+    private String id;
+    
+    private String courseId;
+    
+    private String itemId;
+    
+    /**
+     * Maximum points of the item, used to normalize scores into histogram bins.
+     */
+    private Double points;
+    
+    private long count;
+    
+    private double sum;
+    
+    private double sumOfSquares;
+    
+    /**
+     * Histogram counts keyed by bin number ("0" to "100"); empty bins are absent.
+     */
+    @Builder.Default
+    private Map<String, Long> histogram = new HashMap<>();
+    
+    private Instant updatedAt;
+    
+    /**
+     * Histogram bin of a score.
+     * 
+     * @param score The score
+     * @param points Maximum points of the item (must be positive)
+     * @return Bin number between 0 and 100
+     */
+    public static int bin(double score, double points) {
+        int bin = (int) Math.floor(score / points * 100.0);
+        return Math.max(0, Math.min(BINS - 1, bin));
+    }
+}
@@ -0,0 +1,75 @@
+package com.courseflow.grades.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Outbox entry asking for a submission to be projected into the student's gradebook.
+ * Written before the submission itself, so every submission or grade write is followed by a
+ * projection; the dispatcher re-reads the current submission, which makes entries without a
+ * successful write harmless and repeated entries idempotent. An entry processed before its write
+ * landed is covered by the submission's {@code projectionPending} flag. Processed entries expire.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "gradebook_outbox")
+@CompoundIndex(name = "status_available_at_idx", def = "{'status': 1, 'availableAt': 1}")
+@CompoundIndex(name = "status_created_at_idx", def = "{'status': 1, 'createdAt': 1}")
+public class GradebookOutboxEvent {
+    
+    @Id
+    private String id;
+    
+    private String courseId;
+    
+    private String assignmentId;
+    
+    private String studentId;
+    
+    private EventType type;
+    
+    private Status status;
+    
+    /**
+     * Earliest time the entry can be leased: creation time, the end of the current lease,
+     * or the next retry after a failure.
+     */
+    private Instant availableAt;
+    
+    /**
+     * Identifies the dispatcher batch holding the lease.
+     */
+    private String leaseId;
+    
+    private int attempts;
+    
+    private String lastError;
+    
+    private Instant createdAt;
+    
+    private Instant processedAt;
+    
+    @Indexed(name = "expires_at_ttl_idx", expireAfterSeconds = 0)
+    private Instant expiresAt;
+    
+    public enum EventType {
+        SUBMITTED,
+        GRADED
+    }
+    
+    public enum Status {
+        PENDING,
+        DONE,
+        FAILED
+    }
+}
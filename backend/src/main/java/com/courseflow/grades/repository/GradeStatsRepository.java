@@ -0,0 +1,22 @@
+package com.courseflow.grades.repository;
+
+import com.courseflow.grades.model.GradeStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository for GradeStats entity operations.
+ */
+@Repository
+public interface GradeStatsRepository extends MongoRepository<GradeStats, String> {
+    
+    /**
+     * Find the statistics of all graded items of a course.
+     * 
+     * @param courseId The course ID
+     * @return List of item statistics for the course
+     */
+    List<GradeStats> findByCourseId(String courseId);
+}
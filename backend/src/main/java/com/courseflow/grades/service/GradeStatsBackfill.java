@@ -0,0 +1,59 @@
+package com.courseflow.grades.service;
+
+import com.courseflow.grades.model.GradeStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the grade statistics from the grades stored on submissions when they are empty, e.g. on
+ * the first start after statistics were introduced. Afterwards every grade updates them.
+ * To force a rebuild, drop the grade_stats collection or set {@code grades.stats.rebuild}.
+ * 
+ * Runs after {@link com.courseflow.common.mongo.MongoIndexBootstrap} created the collection's indexes.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class GradeStatsBackfill implements ApplicationRunner {
+    
+    private final GradeStatsService gradeStatsService;
+    private final MongoTemplate mongoTemplate;
+    private final boolean backfill;
+    private final boolean rebuild;
+    private final int batchSize;
+    
+    public GradeStatsBackfill(
+            GradeStatsService gradeStatsService,
+            MongoTemplate mongoTemplate,
+            @Value("${grades.stats.backfill:true}") boolean backfill,
+            @Value("${grades.stats.rebuild:false}") boolean rebuild,
+            @Value("${grades.stats.batch-size:200}") int batchSize) {
+        this.gradeStatsService = gradeStatsService;
+        this.mongoTemplate = mongoTemplate;
+        this.backfill = backfill;
+        this.rebuild = rebuild;
+        this.batchSize = batchSize;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            if (!rebuild && (!backfill || mongoTemplate.exists(new Query(), GradeStats.class))) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            long rebuilt = gradeStatsService.rebuild(batchSize);
+            log.info("Rebuilt grade statistics of {} items in {} ms", rebuilt, System.currentTimeMillis() - start);
+        } catch (DataAccessException e) {
+            log.warn("Could not backfill grade statistics: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.courseflow.grades.service;
+
+import com.courseflow.assignments.model.Assignment;
+import com.courseflow.assignments.model.Submission;
+import com.courseflow.assignments.repository.AssignmentRepository;
+import com.courseflow.grades.dto.GradeStatsResponse;
+import com.courseflow.grades.model.GradeStats;
+import com.courseflow.grades.repository.GradeStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service maintaining the grade statistics read model (mean, spread, percentiles, histogram)
+ * per graded item and per course.
+ * 
+ * Every grade adds its score to the item's running moments and histogram with one atomic $inc
+ * upsert; a regrade swaps the previous score for the new one. Reads never touch gradebooks:
+ * course statistics are merged from the item documents. {@link #rebuild} recomputes every item
+ * from the stored submission grades (see {@link GradeStatsBackfill}); {@link #rebuildItem} does
+ * the same for one item whose points changed, since its histogram is binned at the old scale.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GradeStatsService {
+    
+    private static final int REBUILD_CURSOR_BATCH_SIZE = 500;
+    
+    private final GradeStatsRepository gradeStatsRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final MongoTemplate mongoTemplate;
+    
+    /**
+     * Record many grades of one item as a single atomic update of its statistics.
+     * 
+     * @param courseId The course ID
+     * @param itemId The graded item (assignment) ID
+     * @param points The maximum points of the item
+     * @param scoresByStudentId New score, per student ID
+     * @param previousScoresByStudentId Score before this grading, per student ID (absent or null for first grades)
+     */
+    public void recordGrades(String courseId, String itemId, Double points,
+                             Map<String, Double> scoresByStudentId, Map<String, Double> previousScoresByStudentId) {
+        if (points == null || points <= 0 || scoresByStudentId.isEmpty()) {
+            return;
+        }
+        
+        long added = 0;
+        double sum = 0;
+        double sumOfSquares = 0;
+        Map<Integer, Long> bins = new HashMap<>();
+        
+        for (Map.Entry<String, Double> entry : scoresByStudentId.entrySet()) {
+            Double score = entry.getValue();
+            if (score == null) {
+                continue;
+            }
+            
+            Double previous = previousScoresByStudentId.get(entry.getKey());
+            if (previous == null) {
+                added++;
+            } else {
+                sum -= previous;
+                sumOfSquares -= previous * previous;
+                bins.merge(GradeStats.bin(previous, points), -1L, Long::sum);
+            }
+            sum += score;
+            sumOfSquares += score * score;
+            bins.merge(GradeStats.bin(score, points), 1L, Long::sum);
+        }
+        
+        Update update = new Update()
+                .inc("count", added)
+                .inc("sum", sum)
+                .inc("sumOfSquares", sumOfSquares)
+                .setOnInsert("points", points)
+                .set("updatedAt", Instant.now());
+        bins.forEach((bin, delta) -> {
+            if (delta != 0) {
+                update.inc("histogram." + bin, delta);
+            }
+        });
+        
+        // Only add to statistics binned at the same scale
+        Query query = new Query(Criteria.where("courseId").is(courseId).and("itemId").is(itemId)
+                .and("points").is(points));
+        try {
+            mongoTemplate.upsert(query, update, GradeStats.class);
+        } catch (DuplicateKeyException e) {
+            // Lost the race to create the statistics document, or it exists at another scale
+            // (points changed since these grades were read): recompute the item from its submissions
+            if (mongoTemplate.updateFirst(query, update, GradeStats.class).getMatchedCount() == 0) {
+                log.debug("Grade statistics of item {} are at another scale, rebuilding them", itemId);
+                rebuildItem(itemId);
+                return;
+            }
+        }
+        log.debug("Recorded {} grades of item {} in course {} into grade statistics",
+                scoresByStudentId.size(), itemId, courseId);
+    }
+    
+    /**
+     * Remove the statistics of a deleted item.
+     * 
+     * @param courseId The course ID
+     * @param itemId The graded item (assignment) ID
+     */
+    public void removeItem(String courseId, String itemId) {
+        mongoTemplate.remove(new Query(Criteria.where("courseId").is(courseId).and("itemId").is(itemId)),
+                GradeStats.class);
+    }
+    
+    /**
+     * Recompute the statistics of one assignment from the grades stored on its submissions, e.g.
+     * after its points changed and the stored histogram and moments no longer match the scale.
+     * Statistics of an assignment without points or grades are removed; those of deleted
+     * assignments are removed by {@link #removeItem}.
+     * 
+     * @param assignmentId The assignment ID
+     */
+    public void rebuildItem(String assignmentId) {
+        Query assignmentQuery = new Query(Criteria.where("_id").is(assignmentId));
+        assignmentQuery.fields().include("courseId", "points");
+        Assignment assignment = mongoTemplate.findOne(assignmentQuery, Assignment.class);
+        if (assignment == null) {
+            return;
+        }
+        
+        if (assignment.getPoints() == null || assignment.getPoints() <= 0
+                || rebuildAll(new ArrayList<>(List.of(assignment)), REBUILD_CURSOR_BATCH_SIZE) == 0) {
+            removeItem(assignment.getCourseId(), assignmentId);
+        }
+    }
+    
+    /**
+     * Recompute the statistics of every assignment from the grades stored on its submissions,
+     * replacing the running values, and remove statistics of assignments that no longer exist
+     * or have no grades. Assignments are processed in batches with one submission cursor each.
+     * 
+     * @param batchSize Assignments per batch
+     * @return Number of items with statistics
+     */
+    public long rebuild(int batchSize) {
+        Instant startedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        long rebuilt = 0;
+        List<Assignment> batch = new ArrayList<>(batchSize);
+        
+        Query assignmentsQuery = new Query(Criteria.where("points").gt(0)).cursorBatchSize(batchSize);
+        assignmentsQuery.fields().include("courseId", "points");
+        try (Stream<Assignment> assignments = mongoTemplate.stream(assignmentsQuery, Assignment.class)) {
+            Iterator<Assignment> iterator = assignments.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == batchSize) {
+                    rebuilt += rebuildAll(batch, batchSize);
+                }
+            }
+        }
+        rebuilt += rebuildAll(batch, batchSize);
+        
+        mongoTemplate.remove(new Query(Criteria.where("updatedAt").lt(startedAt)), GradeStats.class);
+        return rebuilt;
+    }
+    
+    private int rebuildAll(List<Assignment> batch, int batchSize) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        Map<String, GradeStats> statsByItemId = new HashMap<>();
+        for (Assignment assignment : batch) {
+            statsByItemId.put(assignment.getId(), GradeStats.builder()
+                    .courseId(assignment.getCourseId())
+                    .itemId(assignment.getId())
+                    .points(assignment.getPoints())
+                    .build());
+        }
+        
+        Query submissionsQuery = new Query(Criteria.where("assignmentId").in(statsByItemId.keySet())
+                .and("grade.score").ne(null))
+                .cursorBatchSize(batchSize);
+        submissionsQuery.fields().include("assignmentId", "grade.score");
+        try (Stream<Submission> submissions = mongoTemplate.stream(submissionsQuery, Submission.class)) {
+            Iterator<Submission> iterator = submissions.iterator();
+            while (iterator.hasNext()) {
+                Submission submission = iterator.next();
+                GradeStats stats = statsByItemId.get(submission.getAssignmentId());
+                double score = submission.getGrade().getScore();
+                stats.setCount(stats.getCount() + 1);
+                stats.setSum(stats.getSum() + score);
+                stats.setSumOfSquares(stats.getSumOfSquares() + score * score);
+                stats.getHistogram().merge(String.valueOf(GradeStats.bin(score, stats.getPoints())), 1L, Long::sum);
+            }
+        }
+        
+        // Items without grades get no document (left for removal), like items nobody graded yet
+        Instant now = Instant.now();
+        int written = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, GradeStats.class);
+        for (GradeStats stats : statsByItemId.values()) {
+            if (stats.getCount() == 0) {
+                continue;
+            }
+            bulk.upsert(new Query(Criteria.where("courseId").is(stats.getCourseId()).and("itemId").is(stats.getItemId())),
+                    new Update()
+                            .set("count", stats.getCount())
+                            .set("sum", stats.getSum())
+                            .set("sumOfSquares", stats.getSumOfSquares())
+                            .set("points", stats.getPoints())
+                            .set("histogram", stats.getHistogram())
+                            .set("updatedAt", now));
+            written++;
+        }
+        if (written > 0) {
+            bulk.execute();
+        }
+        batch.clear();
+        return written;
+    }
+    
+    /**
+     * Get the grade statistics of a course: one summary per graded assignment (in points,
+     * ordered by due date) and a course summary merging all of them (in percent of points).
+     * Statistics of items that are no longer assignments of the course are left out.
+     * 
+     * @param courseId The course ID
+     * @return Grade statistics
+     */
+    public GradeStatsResponse getCourseStats(String courseId) {
+        List<Assignment> assignments = assignmentRepository.findByCourseIdOrderByDueDateAsc(courseId);
+        Map<String, Integer> order = new HashMap<>();
+        for (int i = 0; i < assignments.size(); i++) {
+            order.put(assignments.get(i).getId(), i);
+        }
+        Map<String, Assignment> assignmentsById = assignments.stream()
+                .collect(Collectors.toMap(Assignment::getId, Function.identity()));
+        
+        List<GradeStats> stats = new ArrayList<>(gradeStatsRepository.findByCourseId(courseId));
+        stats.sort(Comparator.comparing(item -> order.getOrDefault(item.getItemId(), Integer.MAX_VALUE)));
+        
+        List<GradeStatsResponse.Summary> items = new ArrayList<>(stats.size());
+        long courseCount = 0;
+        double courseSum = 0;
+        double courseSumOfSquares = 0;
+        long[] courseHistogram = new long[GradeStats.BINS];
+        
+        for (GradeStats item : stats) {
+            Assignment assignment = assignmentsById.get(item.getItemId());
+            if (assignment == null || item.getPoints() == null || item.getPoints() <= 0) {
+                continue;
+            }
+            
+            long[] histogram = histogram(item);
+            items.add(summarize(item.getCount(), item.getSum(), item.getSumOfSquares(), histogram, item.getPoints())
+                    .itemId(item.getItemId())
+                    .title(assignment.getTitle())
+                    .build());
+            
+            // Merge in percent of points, so items with different point scales are comparable
+            double scale = 100.0 / item.getPoints();
+            courseCount += item.getCount();
+            courseSum += item.getSum() * scale;
+            courseSumOfSquares += item.getSumOfSquares() * scale * scale;
+            for (int bin = 0; bin < GradeStats.BINS; bin++) {
+                courseHistogram[bin] += histogram[bin];
+            }
+        }
+        
+        return GradeStatsResponse.builder()
+                .courseId(courseId)
+                .course(summarize(courseCount, courseSum, courseSumOfSquares, courseHistogram, 100.0).build())
+                .items(items)
+                .build();
+    }
+    
+    private static long[] histogram(GradeStats stats) {
+        long[] histogram = new long[GradeStats.BINS];
+        if (stats.getHistogram() != null) {
+            stats.getHistogram().forEach((bin, count) -> {
+                int index = Integer.parseInt(bin);
+                if (index >= 0 && index < GradeStats.BINS && count != null) {
+                    histogram[index] = Math.max(0, count);
+                }
+            });
+        }
+        return histogram;
+    }
+    
+    /**
+     * Summarize moments and a histogram.
+     * 
+     * @param points Maximum points; histogram positions (percent) are scaled to this range
+     */
+    private static GradeStatsResponse.Summary.SummaryBuilder summarize(long count, double sum, double sumOfSquares,
+                                                                       long[] histogram, double points) {
+        GradeStatsResponse.Summary.SummaryBuilder summary = GradeStatsResponse.Summary.builder()
+                .points(points)
+                .count(count)
+                .histogram(histogram);
+        if (count <= 0) {
+            return summary;
+        }
+        
+        double mean = sum / count;
+        double variance = Math.max(0.0, sumOfSquares / count - mean * mean);
+        double scale = points / 100.0;
+        long binned = 0;
+        int lowest = -1;
+        int highest = -1;
+        for (int bin = 0; bin < histogram.length; bin++) {
+            if (histogram[bin] > 0) {
+                binned += histogram[bin];
+                lowest = lowest < 0 ? bin : lowest;
+                highest = bin;
+            }
+        }
+        
+        summary.mean(mean).standardDeviation(Math.sqrt(variance));
+        if (binned > 0) {
+            summary.min(lowest * scale)
+                    .max(Math.min(highest + 1, 100) * scale)
+                    .p25(percentile(histogram, binned, 0.25) * scale)
+                    .median(percentile(histogram, binned, 0.50) * scale)
+                    .p75(percentile(histogram, binned, 0.75) * scale)
+                    .p90(percentile(histogram, binned, 0.90) * scale);
+        }
+        return summary;
+    }
+    
+    /**
+     * Percentile of a histogram in percent of points, interpolated linearly inside its bin.
+     */
+    private static double percentile(long[] histogram, long total, double quantile) {
+        double target = quantile * total;
+        long cumulative = 0;
+        for (int bin = 0; bin < histogram.length; bin++) {
+            if (histogram[bin] <= 0) {
+                continue;
+            }
+            if (cumulative + histogram[bin] >= target) {
+                if (bin == GradeStats.BINS - 1) {
+                    return 100.0;
+                }
+                return bin + (target - cumulative) / histogram[bin];
+            }
+            cumulative += histogram[bin];
+        }
+        return 100.0;
+    }
+}
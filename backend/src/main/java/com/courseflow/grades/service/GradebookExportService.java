@@ -0,0 +1,176 @@
+package com.courseflow.grades.service;
+
+import com.courseflow.assignments.model.Assignment;
+import com.courseflow.assignments.repository.AssignmentRepository;
+import com.courseflow.common.util.CsvUtil;
+import com.courseflow.grades.model.Gradebook;
+import com.courseflow.users.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Streams a course's gradebooks straight from a MongoDB cursor to an output stream.
+ * Gradebooks are read and written in small batches (with student names and emails fetched
+ * per batch), so memory use does not grow with the course size and the first rows are sent
+ * before the last gradebook is read.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GradebookExportService {
+    
+    private final MongoTemplate mongoTemplate;
+    private final AssignmentRepository assignmentRepository;
+    private final GradebookService gradebookService;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${grades.export.batch-size:500}")
+    private int batchSize;
+    
+    /**
+     * Write all gradebooks of a course as CSV: one row per student, one column per assignment
+     * (in due date order), followed by the totals.
+     * 
+     * @param courseId The course ID
+     * @param out Output stream (not closed)
+     */
+    public void exportCsv(String courseId, OutputStream out) throws IOException {
+        List<Assignment> assignments = assignmentRepository.findByCourseIdOrderByDueDateAsc(courseId);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        
+        StringBuilder header = new StringBuilder("studentId,name,email");
+        for (Assignment assignment : assignments) {
+            header.append(',').append(CsvUtil.escape(assignment.getTitle() + " (" + CsvUtil.number(assignment.getPoints()) + ")"));
+        }
+        writer.write(header.append(",earned,possible,percent\r\n").toString());
+        
+        int rows = streamGradebooks(courseId, writer, (gradebook, student, line) -> {
+            Map<String, Double> scores = new HashMap<>();
+            for (Gradebook.GradeItem item : gradebook.getItems()) {
+                if (item.getType() == Gradebook.ItemType.ASSIGNMENT && "GRADED".equals(item.getStatus())) {
+                    scores.put(item.getItemId(), item.getScore());
+                }
+            }
+            
+            line.append(CsvUtil.escape(gradebook.getStudentId()))
+                    .append(',').append(CsvUtil.escape(student != null ? student.getName() : null))
+                    .append(',').append(CsvUtil.escape(student != null ? student.getEmail() : null));
+            for (Assignment assignment : assignments) {
+                line.append(',').append(CsvUtil.number(scores.get(assignment.getId())));
+            }
+            Gradebook.Total total = gradebook.getTotal();
+            line.append(',').append(CsvUtil.number(total != null ? total.getEarned() : null))
+                    .append(',').append(CsvUtil.number(total != null ? total.getPossible() : null))
+                    .append(',').append(CsvUtil.number(total != null ? total.getPercent() : null))
+                    .append("\r\n");
+        });
+        log.info("Exported {} gradebooks of course {} as CSV", rows, courseId);
+    }
+    
+    /**
+     * Write all gradebooks of a course as newline-delimited JSON, one gradebook per line
+     * in the same shape as the gradebook API.
+     * 
+     * @param courseId The course ID
+     * @param out Output stream (not closed)
+     */
+    public void exportNdjson(String courseId, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        
+        int rows = streamGradebooks(courseId, writer, (gradebook, student, line) -> {
+            ObjectNode row = objectMapper.valueToTree(gradebookService.mapToResponse(gradebook));
+            row.put("name", student != null ? student.getName() : null);
+            row.put("email", student != null ? student.getEmail() : null);
+            try {
+                line.append(objectMapper.writeValueAsString(row)).append('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.info("Exported {} gradebooks of course {} as NDJSON", rows, courseId);
+    }
+    
+    /**
+     * Read the course's gradebooks through a cursor (in student order) and render them batch by batch.
+     * The writer is flushed after every batch.
+     * 
+     * @return Number of gradebooks written
+     */
+    private int streamGradebooks(String courseId, Writer writer, RowRenderer renderer) throws IOException {
+        Query query = new Query(Criteria.where("courseId").is(courseId))
+                .with(Sort.by("studentId"))
+                .cursorBatchSize(batchSize);
+        
+        int rows = 0;
+        try (Stream<Gradebook> gradebooks = mongoTemplate.stream(query, Gradebook.class)) {
+            Iterator<Gradebook> iterator = gradebooks.iterator();
+            List<Gradebook> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == batchSize || !iterator.hasNext()) {
+                    writeBatch(batch, writer, renderer);
+                    rows += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+    
+    private void writeBatch(List<Gradebook> batch, Writer writer, RowRenderer renderer) throws IOException {
+        Map<String, User> students = loadStudents(batch.stream()
+                .map(Gradebook::getStudentId)
+                .collect(Collectors.toSet()));
+        
+        StringBuilder line = new StringBuilder(256);
+        for (Gradebook gradebook : batch) {
+            line.setLength(0);
+            renderer.render(gradebook, students.get(gradebook.getStudentId()), line);
+            writer.write(line.toString());
+        }
+        writer.flush();
+    }
+    
+    /**
+     * Load name and email of a batch of students with one query.
+     */
+    private Map<String, User> loadStudents(Set<String> studentIds) {
+        Query query = new Query(Criteria.where("_id").in(studentIds));
+        query.fields().include("name", "email");
+        return mongoTemplate.find(query, User.class).stream()
+                .collect(Collectors.toMap(User::getId, user -> user));
+    }
+    
+    /**
+     * Renders one gradebook (and its student, if found) into an output line.
+     */
+    @FunctionalInterface
+    private interface RowRenderer {
+        void render(Gradebook gradebook, User student, StringBuilder line);
+    }
+}
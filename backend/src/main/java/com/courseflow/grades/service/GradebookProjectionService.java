@@ -0,0 +1,336 @@
+package com.courseflow.grades.service;
+
+import com.courseflow.assignments.model.Assignment;
+import com.courseflow.assignments.model.Submission;
+import com.courseflow.assignments.repository.AssignmentRepository;
+import com.courseflow.grades.model.GradebookOutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous gradebook projection through the gradebook outbox.
+ * 
+ * Request paths {@link #enqueue enqueue} an outbox entry before writing the submission, and the
+ * write itself sets {@code projectionPending} on the submission. The dispatcher leases pending
+ * entries in batches, re-reads the current submissions (one query per assignment, several entries
+ * for the same student collapse into one projection) and applies them with
+ * {@link GradebookService#projectSubmissions}. Failed batches are retried with exponential backoff
+ * and marked FAILED after the maximum number of attempts; a lease that is not completed (e.g. the
+ * instance died) expires and the entries are picked up again.
+ * 
+ * Entries can be leased before their write lands (there is no transaction), and then project the
+ * previous state. The flag written with the submission closes that gap: it is only cleared for the
+ * exact state that was projected (see {@link #clearProjectionPending}), so a write the dispatcher
+ * missed stays pending and is projected by the sweeper of {@code SubmissionIngestionService}.
+ */
+@Slf4j
+@Service
+public class GradebookProjectionService {
+    
+    private final MongoTemplate mongoTemplate;
+    private final GradebookService gradebookService;
+    private final AssignmentRepository assignmentRepository;
+    private final int batchSize;
+    private final long leaseTimeoutMs;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final long maxRetryBackoffMs;
+    private final Duration retention;
+    
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMs = new AtomicLong();
+    private final Counter projected;
+    private final Counter retried;
+    private final Counter failed;
+    private final Timer delay;
+    
+    public GradebookProjectionService(
+            MongoTemplate mongoTemplate,
+            GradebookService gradebookService,
+            AssignmentRepository assignmentRepository,
+            MeterRegistry meterRegistry,
+            @Value("${grades.projection.batch-size:200}") int batchSize,
+            @Value("${grades.projection.lease-timeout:60000}") long leaseTimeoutMs,
+            @Value("${grades.projection.max-attempts:10}") int maxAttempts,
+            @Value("${grades.projection.retry-backoff:1000}") long retryBackoffMs,
+            @Value("${grades.projection.max-retry-backoff:300000}") long maxRetryBackoffMs,
+            @Value("${grades.projection.retention-days:7}") long retentionDays) {
+        this.mongoTemplate = mongoTemplate;
+        this.gradebookService = gradebookService;
+        this.assignmentRepository = assignmentRepository;
+        this.batchSize = batchSize;
+        this.leaseTimeoutMs = leaseTimeoutMs;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxRetryBackoffMs = maxRetryBackoffMs;
+        this.retention = Duration.ofDays(retentionDays);
+        
+        this.projected = Counter.builder("grades.projection.events")
+                .tag("result", "projected")
+                .description("Gradebook outbox entries projected")
+                .register(meterRegistry);
+        this.retried = Counter.builder("grades.projection.events")
+                .tag("result", "retried")
+                .description("Gradebook outbox entries scheduled for another attempt")
+                .register(meterRegistry);
+        this.failed = Counter.builder("grades.projection.events")
+                .tag("result", "failed")
+                .description("Gradebook outbox entries given up after the maximum number of attempts")
+                .register(meterRegistry);
+        this.delay = Timer.builder("grades.projection.delay")
+                .description("Time from writing a gradebook outbox entry to its projection")
+                .register(meterRegistry);
+        Gauge.builder("grades.projection.pending", pending, AtomicLong::get)
+                .description("Gradebook outbox entries waiting for projection")
+                .register(meterRegistry);
+        Gauge.builder("grades.projection.lag", lagMs, value -> value.get() / 1000.0)
+                .description("Age in seconds of the oldest gradebook outbox entry not yet projected (waiting, leased or retrying)")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Record that a student's submission of an assignment changed and must be projected.
+     * Call before writing the submission.
+     * 
+     * @param courseId The course ID
+     * @param assignmentId The assignment ID
+     * @param studentId The student ID
+     * @param type What changed
+     */
+    public void enqueue(String courseId, String assignmentId, String studentId, GradebookOutboxEvent.EventType type) {
+        enqueueAll(courseId, assignmentId, List.of(studentId), type);
+    }
+    
+    /**
+     * Record that submissions of several students to one assignment changed, with a single insert.
+     * Call before writing the submissions.
+     * 
+     * @param courseId The course ID
+     * @param assignmentId The assignment ID
+     * @param studentIds The student IDs
+     * @param type What changed
+     */
+    public void enqueueAll(String courseId, String assignmentId, Collection<String> studentIds,
+                           GradebookOutboxEvent.EventType type) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        
+        Instant now = Instant.now();
+        List<GradebookOutboxEvent> events = studentIds.stream()
+                .map(studentId -> GradebookOutboxEvent.builder()
+                        .courseId(courseId)
+                        .assignmentId(assignmentId)
+                        .studentId(studentId)
+                        .type(type)
+                        .status(GradebookOutboxEvent.Status.PENDING)
+                        .availableAt(now)
+                        .createdAt(now)
+                        .build())
+                .collect(Collectors.toList());
+        mongoTemplate.insert(events, GradebookOutboxEvent.class);
+    }
+    
+    /**
+     * Project pending outbox entries until no full batch is left, then refresh the lag gauges.
+     */
+    @Scheduled(fixedDelayString = "${grades.projection.poll-interval:500}")
+    public void dispatch() {
+        try {
+            int leased;
+            do {
+                leased = dispatchBatch();
+            } while (leased >= batchSize);
+            
+            refreshLag();
+        } catch (DataAccessException e) {
+            log.warn("Gradebook projection dispatch failed: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Lease and project one batch of pending entries.
+     * 
+     * @return Number of entries leased
+     */
+    private int dispatchBatch() {
+        Instant now = Instant.now();
+        Criteria leasable = Criteria.where("status").is(GradebookOutboxEvent.Status.PENDING)
+                .and("availableAt").lte(now);
+        
+        Query candidates = new Query(leasable).with(Sort.by("availableAt")).limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> ids = mongoTemplate.find(candidates, GradebookOutboxEvent.class).stream()
+                .map(GradebookOutboxEvent::getId)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        
+        // Lease with a conditional update, so entries taken by another instance in between are skipped
+        String leaseId = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(ids).and("status").is(GradebookOutboxEvent.Status.PENDING)
+                        .and("availableAt").lte(now)),
+                new Update().set("leaseId", leaseId)
+                        .set("availableAt", now.plusMillis(leaseTimeoutMs))
+                        .inc("attempts", 1),
+                GradebookOutboxEvent.class);
+        List<GradebookOutboxEvent> leased = mongoTemplate.find(
+                new Query(Criteria.where("_id").in(ids).and("leaseId").is(leaseId)), GradebookOutboxEvent.class);
+        
+        Map<String, List<GradebookOutboxEvent>> byAssignment = leased.stream()
+                .collect(Collectors.groupingBy(GradebookOutboxEvent::getAssignmentId));
+        Map<String, Assignment> assignments = assignmentRepository.findAllById(byAssignment.keySet()).stream()
+                .collect(Collectors.toMap(Assignment::getId, Function.identity()));
+        
+        byAssignment.forEach((assignmentId, events) -> {
+            try {
+                project(assignments.get(assignmentId), events);
+                complete(leaseId, events);
+            } catch (RuntimeException e) {
+                retryOrFail(leaseId, events, e);
+            }
+        });
+        return ids.size();
+    }
+    
+    /**
+     * Project the current submissions of the students referenced by the entries and clear their
+     * pending flags. Nothing is projected if the assignment or a submission does not exist
+     * (deleted, the write failed, or the write has not landed yet and is left to its pending flag).
+     */
+    private void project(Assignment assignment, List<GradebookOutboxEvent> events) {
+        if (assignment == null) {
+            return;
+        }
+        
+        Set<String> studentIds = events.stream()
+                .map(GradebookOutboxEvent::getStudentId)
+                .collect(Collectors.toSet());
+        Query query = new Query(Criteria.where("assignmentId").is(assignment.getId()).and("studentId").in(studentIds));
+        query.fields().include("studentId", "grade", "projectionPending");
+        List<Submission> submissions = mongoTemplate.find(query, Submission.class);
+        
+        if (!submissions.isEmpty()) {
+            gradebookService.projectSubmissions(assignment.getCourseId(), assignment.getId(),
+                    assignment.getTitle(), assignment.getPoints(), submissions);
+            clearProjectionPending(submissions.stream()
+                    .filter(submission -> Boolean.TRUE.equals(submission.getProjectionPending()))
+                    .toList());
+        }
+    }
+    
+    /**
+     * Clear the pending flag of projected submissions, but only where the stored grade is still
+     * the one that was projected: a grade written after the submissions were read keeps its flag
+     * and is projected again.
+     * 
+     * @param projected Submissions as read for the projection (with grade)
+     */
+    public void clearProjectionPending(List<Submission> projected) {
+        if (projected.isEmpty()) {
+            return;
+        }
+        
+        BulkOperations clears = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Submission.class);
+        for (Submission submission : projected) {
+            Criteria unchanged = Criteria.where("_id").is(submission.getId()).and("projectionPending").is(true);
+            if (submission.getGrade() != null && submission.getGrade().getGradedAt() != null) {
+                unchanged.and("grade.gradedAt").is(submission.getGrade().getGradedAt());
+            } else {
+                unchanged.and("grade").is(null);
+            }
+            clears.updateOne(new Query(unchanged), new Update().unset("projectionPending"));
+        }
+        clears.execute();
+    }
+    
+    private void complete(String leaseId, List<GradebookOutboxEvent> events) {
+        Instant now = Instant.now();
+        mongoTemplate.updateMulti(
+                leasedQuery(leaseId, events),
+                new Update().set("status", GradebookOutboxEvent.Status.DONE)
+                        .set("processedAt", now)
+                        .set("expiresAt", now.plus(retention)),
+                GradebookOutboxEvent.class);
+        
+        for (GradebookOutboxEvent event : events) {
+            delay.record(Duration.between(event.getCreatedAt(), now));
+        }
+        projected.increment(events.size());
+    }
+    
+    /**
+     * Release the lease of failed entries: retry after a backoff that doubles with every
+     * attempt, or mark them FAILED once the attempts are used up.
+     */
+    private void retryOrFail(String leaseId, List<GradebookOutboxEvent> events, RuntimeException error) {
+        Instant now = Instant.now();
+        String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+        
+        events.stream()
+                .collect(Collectors.groupingBy(GradebookOutboxEvent::getAttempts))
+                .forEach((attempts, sameAttempts) -> {
+                    Update update = new Update().set("lastError", message).unset("leaseId");
+                    if (attempts >= maxAttempts) {
+                        update.set("status", GradebookOutboxEvent.Status.FAILED);
+                        failed.increment(sameAttempts.size());
+                        log.error("Gave up projecting {} gradebook outbox entries of assignment {} after {} attempts: {}",
+                                sameAttempts.size(), sameAttempts.get(0).getAssignmentId(), attempts, message);
+                    } else {
+                        long backoff = Math.min(maxRetryBackoffMs, retryBackoffMs << Math.min(attempts - 1, 20));
+                        update.set("availableAt", now.plusMillis(backoff));
+                        retried.increment(sameAttempts.size());
+                        log.warn("Projection of {} gradebook outbox entries of assignment {} failed (attempt {}), retrying in {} ms: {}",
+                                sameAttempts.size(), sameAttempts.get(0).getAssignmentId(), attempts, backoff, message);
+                    }
+                    mongoTemplate.updateMulti(leasedQuery(leaseId, sameAttempts), update, GradebookOutboxEvent.class);
+                });
+    }
+    
+    private static Query leasedQuery(String leaseId, List<GradebookOutboxEvent> events) {
+        return new Query(Criteria.where("_id").in(events.stream().map(GradebookOutboxEvent::getId).toList())
+                .and("leaseId").is(leaseId));
+    }
+    
+    private void refreshLag() {
+        Query waiting = new Query(Criteria.where("status").is(GradebookOutboxEvent.Status.PENDING));
+        pending.set(mongoTemplate.count(waiting, GradebookOutboxEvent.class));
+        
+        // By creation, not availableAt: retry backoff and leases push availableAt into the future
+        Query oldest = new Query(Criteria.where("status").is(GradebookOutboxEvent.Status.PENDING))
+                .with(Sort.by("createdAt"))
+                .limit(1);
+        oldest.fields().include("createdAt");
+        GradebookOutboxEvent event = mongoTemplate.findOne(oldest, GradebookOutboxEvent.class);
+        lagMs.set(event != null && event.getCreatedAt() != null
+                ? Math.max(0, Duration.between(event.getCreatedAt(), Instant.now()).toMillis())
+                : 0);
+    }
+}
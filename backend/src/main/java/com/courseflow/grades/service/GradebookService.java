@@ -1,21 +1,32 @@
 package com.courseflow.grades.service;
 
-import com.courseflow.assignments.model.Assignment;
+import com.courseflow.assignments.model.Submission;
 import com.courseflow.assignments.repository.AssignmentRepository;
 import com.courseflow.enrollments.service.EnrollmentService;
+import com.courseflow.grades.dto.GradeMatrix;
 import com.courseflow.grades.dto.GradebookResponse;
 import com.courseflow.grades.model.Gradebook;
 import com.courseflow.grades.repository.GradebookRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for handling gradebook operations.
@@ -26,183 +37,157 @@ import java.util.stream.Collectors;
 public class GradebookService {
     
     private final GradebookRepository gradebookRepository;
-    private final AssignmentRepository assignmentRepository;
     private final EnrollmentService enrollmentService;
+    private final AssignmentRepository assignmentRepository;
+    private final MongoTemplate mongoTemplate;
+    private final GradeStatsService gradeStatsService;
     
     /**
-     * Get or create gradebook for a course and student.
+     * Project the current state of submissions of one assignment into the students' gradebooks
+     * and the assignment's grade statistics. Graded submissions set score and status GRADED,
+     * others status SUBMITTED.
+     * 
+     * Idempotent: each item is written with an atomic upsert that returns the previous item,
+     * and the statistics swap the score previously counted for the current one, so projecting
+     * the same submission again changes nothing.
      * 
      * @param courseId The course ID
-     * @param studentId The student ID
-     * @return Gradebook entity
+     * @param assignmentId The assignment ID
+     * @param title The assignment title
+     * @param points The maximum points possible
+     * @param submissions Current submissions (student ID and grade are read)
      */
-    private Gradebook getOrCreateGradebook(String courseId, String studentId) {
-        Optional<Gradebook> existing = gradebookRepository.findByCourseIdAndStudentId(courseId, studentId);
-        
-        if (existing.isPresent()) {
-            return existing.get();
-        }
+    public void projectSubmissions(String courseId, String assignmentId, String title, Double points,
+                                   List<Submission> submissions) {
+        Map<String, Double> scoresByStudentId = new HashMap<>();
+        Map<String, Double> previousScoresByStudentId = new HashMap<>();
         
-        // Create new gradebook
-        Gradebook gradebook = Gradebook.builder()
-                .courseId(courseId)
-                .studentId(studentId)
-                .items(new ArrayList<>())
-                .total(Gradebook.Total.builder()
-                        .earned(0.0)
-                        .possible(0.0)
-                        .percent(0.0)
-                        .build())
-                .build();
-        
-        try {
-            gradebook = gradebookRepository.save(gradebook);
-            log.debug("Created new gradebook for student {} in course {}", studentId, courseId);
-        } catch (DuplicateKeyException e) {
-            // Race condition: another thread created it, fetch it
-            gradebook = gradebookRepository.findByCourseIdAndStudentId(courseId, studentId)
-                    .orElseThrow(() -> new RuntimeException("Failed to create gradebook"));
+        for (Submission submission : submissions) {
+            Submission.Grade grade = submission.getGrade();
+            boolean graded = grade != null && grade.getScore() != null;
+            Document changes = graded
+                    ? gradeChanges(grade.getScore(), points, 
+                            grade.getGradedAt() != null ? Date.from(grade.getGradedAt()) : new Date())
+                    : new Document("status", "SUBMITTED").append("points", points);
+            
+            Gradebook.GradeItem previous = upsertItem(courseId, submission.getStudentId(), assignmentId, title, changes);
+            if (graded) {
+                scoresByStudentId.put(submission.getStudentId(), grade.getScore());
+                if (previous != null && "GRADED".equals(previous.getStatus()) && previous.getScore() != null) {
+                    previousScoresByStudentId.put(submission.getStudentId(), previous.getScore());
+                }
+            }
         }
         
-        return gradebook;
+        gradeStatsService.recordGrades(courseId, assignmentId, points, scoresByStudentId, previousScoresByStudentId);
+        log.debug("Projected {} submissions of assignment {} into gradebooks of course {}",
+                submissions.size(), assignmentId, courseId);
     }
     
     /**
-     * Update gradebook when a student submits an assignment.
+     * Set fields of an assignment item (appending the item if missing, creating the gradebook
+     * if missing) and recompute the totals, all server-side in one update pipeline.
+     * Concurrent updates of different items of the same gradebook cannot overwrite each other.
      * 
      * @param courseId The course ID
      * @param studentId The student ID
-     * @param assignmentId The assignment ID
-     * @param status The status (typically "SUBMITTED")
+     * @param itemId The assignment ID
+     * @param title Title used when the item has none yet
+     * @param changes Item fields to set
+     * @return The item as it was before the update, or null if it did not exist
      */
-    public void updateGradebookOnSubmission(String courseId, String studentId, String assignmentId, String status) {
-        // Get assignment to retrieve title and points
-        Assignment assignment = assignmentRepository.findById(assignmentId)
-                .orElse(null);
+    private Gradebook.GradeItem upsertItem(String courseId, String studentId, String itemId, String title,
+                                           Document changes) {
+        AggregationUpdate update = itemUpdate(itemId, title, changes);
+        Query gradebook = gradebookQuery(courseId, studentId);
+        gradebook.fields().elemMatch("items", Criteria.where("itemId").is(itemId)
+                .and("type").is(Gradebook.ItemType.ASSIGNMENT.name()));
+        FindAndModifyOptions options = FindAndModifyOptions.options().upsert(true).returnNew(false);
         
-        if (assignment == null) {
-            log.warn("Assignment {} not found when updating gradebook", assignmentId);
-            return;
+        Gradebook before;
+        try {
+            before = mongoTemplate.findAndModify(gradebook, update, options, Gradebook.class);
+        } catch (DuplicateKeyException e) {
+            // Lost the race to create the gradebook; the document exists now, so this is a plain update
+            before = mongoTemplate.findAndModify(gradebook, update, options, Gradebook.class);
         }
         
-        Gradebook gradebook = getOrCreateGradebook(courseId, studentId);
-        
-        // Find existing item or create new one
-        Optional<Gradebook.GradeItem> existingItemOpt = gradebook.getItems().stream()
-                .filter(item -> item.getItemId().equals(assignmentId) && 
-                               item.getType() == Gradebook.ItemType.ASSIGNMENT)
-                .findFirst();
-        
-        if (existingItemOpt.isPresent()) {
-            // Update existing item
-            Gradebook.GradeItem item = existingItemOpt.get();
-            item.setStatus(status);
-            item.setPoints(assignment.getPoints());
-            if (item.getTitle() == null || item.getTitle().isBlank()) {
-                item.setTitle(assignment.getTitle());
-            }
-        } else {
-            // Create new item
-            Gradebook.GradeItem newItem = Gradebook.GradeItem.builder()
-                    .type(Gradebook.ItemType.ASSIGNMENT)
-                    .itemId(assignmentId)
-                    .title(assignment.getTitle())
-                    .score(null)
-                    .points(assignment.getPoints())
-                    .status(status)
-                    .gradedAt(null)
-                    .build();
-            
-            gradebook.getItems().add(newItem);
+        if (before == null || before.getItems() == null || before.getItems().isEmpty()) {
+            return null;
         }
-        
-        gradebookRepository.save(gradebook);
-        log.debug("Updated gradebook for student {} in course {} on assignment submission", 
-                studentId, courseId);
+        return before.getItems().get(0);
+    }
+    
+    private static Document gradeChanges(Double score, Double points, Date gradedAt) {
+        return new Document("score", score)
+                .append("points", points)
+                .append("status", "GRADED")
+                .append("gradedAt", gradedAt);
+    }
+    
+    private static Query gradebookQuery(String courseId, String studentId) {
+        return new Query(Criteria.where("courseId").is(courseId).and("studentId").is(studentId));
     }
     
     /**
-     * Update gradebook when an instructor grades a submission.
-     * 
-     * @param courseId The course ID
-     * @param studentId The student ID
-     * @param assignmentId The assignment ID
-     * @param score The score received
-     * @param points The maximum points possible
+     * Build the update pipeline for one item: set its fields (or append it) and recompute totals.
      */
-    public void updateGradebookOnGrade(String courseId, String studentId, String assignmentId, 
-                                       Double score, Double points) {
-        Gradebook gradebook = getOrCreateGradebook(courseId, studentId);
-        
-        // Get assignment for title
-        Assignment assignment = assignmentRepository.findById(assignmentId)
-                .orElse(null);
-        String title = assignment != null ? assignment.getTitle() : "Assignment";
+    private AggregationUpdate itemUpdate(String itemId, String title, Document changes) {
+        Document isItem = new Document("$and", List.of(
+                new Document("$eq", List.of("$$this.itemId", itemId)),
+                new Document("$eq", List.of("$$this.type", Gradebook.ItemType.ASSIGNMENT.name()))));
+        Document items = new Document("$ifNull", List.of("$items", List.of()));
+        Document hasItem = new Document("$in", List.of(true, new Document("$map", new Document("input", items)
+                .append("in", isItem))));
         
-        // Find existing item or create new one
-        Optional<Gradebook.GradeItem> existingItemOpt = gradebook.getItems().stream()
-                .filter(item -> item.getItemId().equals(assignmentId) && 
-                               item.getType() == Gradebook.ItemType.ASSIGNMENT)
-                .findFirst();
+        // User-provided text is wrapped in $literal so a leading "$" is not read as a field path
+        Document literalTitle = new Document("$literal", title);
+        Document patch = new Document(changes)
+                .append("title", new Document("$cond", List.of(
+                        new Document("$eq", List.of(new Document("$ifNull", List.of("$$this.title", "")), "")),
+                        literalTitle,
+                        "$$this.title")));
+        Document newItem = new Document(changes)
+                .append("type", Gradebook.ItemType.ASSIGNMENT.name())
+                .append("itemId", itemId)
+                .append("title", literalTitle);
         
-        Gradebook.GradeItem item;
-        if (existingItemOpt.isPresent()) {
-            item = existingItemOpt.get();
-        } else {
-            // Create new item if it doesn't exist
-            item = Gradebook.GradeItem.builder()
-                    .type(Gradebook.ItemType.ASSIGNMENT)
-                    .itemId(assignmentId)
-                    .title(title)
-                    .build();
-            gradebook.getItems().add(item);
-        }
-        
-        // Update item with grade information
-        item.setScore(score);
-        item.setPoints(points);
-        item.setStatus("GRADED");
-        item.setGradedAt(Instant.now());
-        if (item.getTitle() == null || item.getTitle().isBlank()) {
-            item.setTitle(title);
-        }
+        Document setItems = new Document("items", new Document("$cond", List.of(
+                hasItem,
+                new Document("$map", new Document("input", items)
+                        .append("in", new Document("$cond", List.of(
+                                isItem,
+                                new Document("$mergeObjects", List.of("$$this", patch)),
+                                "$$this")))),
+                new Document("$concatArrays", List.of(items, List.of(newItem))))))
+                .append("updatedAt", new Date());
         
-        // Recalculate totals
-        recalculateTotals(gradebook);
+        // Only items with points count toward the total; only graded scores are earned
+        Document countsTowardTotal = new Document("$gt", List.of(new Document("$ifNull", List.of("$$this.points", 0)), 0));
+        Document isGraded = new Document("$and", List.of(
+                countsTowardTotal,
+                new Document("$eq", List.of("$$this.status", "GRADED")),
+                new Document("$ne", Arrays.asList(new Document("$ifNull", Arrays.asList("$$this.score", null)), null))));
+        Document setTotals = new Document("total.possible", sumOverItems(countsTowardTotal, "$$this.points"))
+                .append("total.earned", sumOverItems(isGraded, "$$this.score"));
+        Document setPercent = new Document("total.percent", new Document("$cond", List.of(
+                new Document("$gt", List.of("$total.possible", 0)),
+                new Document("$multiply", List.of(
+                        new Document("$divide", List.of("$total.earned", "$total.possible")), 100.0)),
+                0.0)));
         
-        gradebookRepository.save(gradebook);
-        log.debug("Updated gradebook for student {} in course {} on assignment grade", 
-                studentId, courseId);
+        return AggregationUpdate.from(List.of(
+                context -> new Document("$set", setItems),
+                context -> new Document("$set", setTotals),
+                context -> new Document("$set", setPercent)));
     }
     
     /**
-     * Recalculate totals for a gradebook based on all items.
-     * 
-     * @param gradebook The gradebook to recalculate
+     * Sum an item field over the items matching a condition (as a $sum of a $map).
      */
-    public void recalculateTotals(Gradebook gradebook) {
-        double earned = 0.0;
-        double possible = 0.0;
-        
-        for (Gradebook.GradeItem item : gradebook.getItems()) {
-            if (item.getPoints() != null && item.getPoints() > 0) {
-                possible += item.getPoints();
-                
-                // Only count score if it's been graded
-                if (item.getScore() != null && item.getStatus() != null && 
-                    item.getStatus().equals("GRADED")) {
-                    earned += item.getScore();
-                }
-            }
-        }
-        
-        double percent = possible > 0 ? (earned / possible) * 100.0 : 0.0;
-        
-        gradebook.setTotal(Gradebook.Total.builder()
-                .earned(earned)
-                .possible(possible)
-                .percent(percent)
-                .build());
+    private static Document sumOverItems(Document condition, String field) {
+        return new Document("$sum", new Document("$map", new Document("input", "$items")
+                .append("in", new Document("$cond", List.of(condition, field, 0.0)))));
     }
     
     /**
@@ -246,10 +231,52 @@ public class GradebookService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Get the course gradebook as a columnar students x assignments matrix.
+     * Columns are the course's assignments in due date order; only graded scores are filled in.
+     * Gradebooks are streamed with a projection straight into primitive columns, so no
+     * per-student response objects are built.
+     * 
+     * @param courseId The course ID
+     * @return Grade matrix
+     */
+    public GradeMatrix getGradeMatrix(String courseId) {
+        List<GradeMatrix.Item> columns = assignmentRepository.findByCourseIdOrderByDueDateAsc(courseId).stream()
+                .map(assignment -> new GradeMatrix.Item(assignment.getId(), assignment.getTitle(), assignment.getPoints()))
+                .collect(Collectors.toList());
+        GradeMatrix.Builder matrix = new GradeMatrix.Builder(courseId, columns);
+        
+        Query query = new Query(Criteria.where("courseId").is(courseId)).with(Sort.by("studentId"));
+        query.fields().include("studentId", "items.itemId", "items.type", "items.score", "items.status", "total");
+        
+        try (Stream<Gradebook> gradebooks = mongoTemplate.stream(query, Gradebook.class)) {
+            gradebooks.forEach(gradebook -> {
+                Gradebook.Total total = gradebook.getTotal();
+                matrix.addStudent(gradebook.getStudentId(),
+                        valueOrZero(total != null ? total.getEarned() : null),
+                        valueOrZero(total != null ? total.getPossible() : null),
+                        valueOrZero(total != null ? total.getPercent() : null));
+                
+                for (Gradebook.GradeItem item : gradebook.getItems()) {
+                    if (item.getType() == Gradebook.ItemType.ASSIGNMENT && item.getScore() != null &&
+                        "GRADED".equals(item.getStatus())) {
+                        matrix.setScore(item.getItemId(), item.getScore());
+                    }
+                }
+            });
+        }
+        
+        return matrix.build();
+    }
+    
+    private static double valueOrZero(Double value) {
+        return value != null ? value : 0.0;
+    }
+    
     /**
      * Map Gradebook entity to GradebookResponse DTO.
      */
-    private GradebookResponse mapToResponse(Gradebook gradebook) {
+    GradebookResponse mapToResponse(Gradebook gradebook) {
         List<GradebookResponse.GradeItemResponse> itemResponses = gradebook.getItems().stream()
                 .map(item -> GradebookResponse.GradeItemResponse.builder()
                         .type(item.getType().name())
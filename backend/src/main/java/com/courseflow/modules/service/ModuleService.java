@@ -1,6 +1,7 @@
 package com.courseflow.modules.service;
 
 import com.courseflow.auth.service.AuthService;
+import com.courseflow.calendar.service.DueItemService;
 import com.courseflow.common.error.ApiException;
 import com.courseflow.courses.repository.CourseRepository;
 import com.courseflow.enrollments.service.EnrollmentService;
@@ -30,6 +31,7 @@ public class ModuleService {
     private final CourseRepository courseRepository;
     private final EnrollmentService enrollmentService;
     private final AuthService authService;
+    private final DueItemService dueItemService;
     
     /**
      * Get module tree for a course. User must be enrolled.
@@ -120,6 +122,7 @@ public class ModuleService {
         courseModule.setModules(modules);
         
         courseModule = moduleRepository.save(courseModule);
+        dueItemService.syncModules(courseModule);
         log.info("Modules updated for course {} by user {}", courseId, currentUser.getId());
         
         return ModuleResponse.fromEntity(courseModule);
@@ -227,6 +230,7 @@ public class ModuleService {
         module.getItems().add(newItem);
         
         courseModule = moduleRepository.save(courseModule);
+        dueItemService.syncModuleItem(courseId, moduleId, newItem);
         log.info("Module item added to module {} in course {} by user {}", moduleId, courseId, currentUser.getId());
         
         return ModuleResponse.fromEntity(courseModule);
@@ -0,0 +1,104 @@
+package com.courseflow.security;
+
+import com.courseflow.enrollments.model.Enrollment;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact map of a user's active course roles embedded in an access token,
+ * stamped with the user's enrollment version at issue time.
+ * 
+ * Claim layout: {@code "crs": {"<courseId>": "S" | "T" | "I"}} and {@code "ev": <enrollmentVersion>}.
+ * The claims are only authoritative while the stamp matches the user's current enrollment version.
+ */
+public class CourseRoleClaims {
+    
+    public static final String COURSES_CLAIM = "crs";
+    public static final String VERSION_CLAIM = "ev";
+    
+    private final Map<String, String> roles;
+    private final long enrollmentVersion;
+    
+    private CourseRoleClaims(Map<String, String> roles, long enrollmentVersion) {
+        this.roles = roles;
+        this.enrollmentVersion = enrollmentVersion;
+    }
+    
+    /**
+     * Build claims from a user's active enrollments.
+     * 
+     * @param enrollments Active enrollments of the user
+     * @param enrollmentVersion The user's enrollment version, read before the enrollments
+     * @return Course role claims
+     */
+    public static CourseRoleClaims fromEnrollments(List<Enrollment> enrollments, long enrollmentVersion) {
+        Map<String, String> roles = new HashMap<>();
+        for (Enrollment enrollment : enrollments) {
+            roles.put(enrollment.getCourseId(), encode(enrollment.getCourseRole()));
+        }
+        return new CourseRoleClaims(roles, enrollmentVersion);
+    }
+    
+    /**
+     * Read claims from a verified access token.
+     * 
+     * @param token Verified access token
+     * @return Course role claims, or null if the token does not carry them
+     */
+    @SuppressWarnings("unchecked")
+    public static CourseRoleClaims fromToken(VerifiedToken token) {
+        Object courses = token.getClaims().get(COURSES_CLAIM);
+        Number version = token.getClaims().get(VERSION_CLAIM, Number.class);
+        if (!(courses instanceof Map) || version == null) {
+            return null;
+        }
+        return new CourseRoleClaims(Collections.unmodifiableMap((Map<String, String>) courses), version.longValue());
+    }
+    
+    /**
+     * Write the claims into a token claim map.
+     */
+    public void writeTo(Map<String, Object> claims) {
+        claims.put(COURSES_CLAIM, roles);
+        claims.put(VERSION_CLAIM, enrollmentVersion);
+    }
+    
+    /**
+     * Get the enrollment version these claims were issued with.
+     */
+    public long getEnrollmentVersion() {
+        return enrollmentVersion;
+    }
+    
+    /**
+     * Get the user's active role in a course.
+     * 
+     * @param courseId The course ID
+     * @return Course role, or null if the user had no active enrollment when the token was issued
+     */
+    public Enrollment.CourseRole roleFor(String courseId) {
+        return decode(roles.get(courseId));
+    }
+    
+    private static String encode(Enrollment.CourseRole role) {
+        return switch (role != null ? role : Enrollment.CourseRole.STUDENT) {
+            case INSTRUCTOR -> "I";
+            case TA -> "T";
+            case STUDENT -> "S";
+        };
+    }
+    
+    private static Enrollment.CourseRole decode(String code) {
+        if (code == null) {
+            return null;
+        }
+        return switch (code) {
+            case "I" -> Enrollment.CourseRole.INSTRUCTOR;
+            case "T" -> Enrollment.CourseRole.TA;
+            default -> Enrollment.CourseRole.STUDENT;
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package com.courseflow.security;
 
+import com.courseflow.auth.service.RefreshTokenService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -7,6 +8,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
 import org.springframework.lang.NonNull;
@@ -30,6 +32,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtTokenProvider tokenProvider;
     private final UserDetailsServiceImpl userDetailsService;
+    private final RefreshTokenService refreshTokenService;
+    
+    /**
+     * How the principal is built: "token" builds it from verified claims (no user lookup),
+     * "database" loads the user document on every request.
+     */
+    @Value("${auth.principal-mode:token}")
+    private String principalMode;
     
     private static final String TOKEN_PREFIX = "Bearer ";
     private static final String REFRESH_TOKEN_COOKIE_NAME = "refreshToken";
@@ -43,12 +53,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String token = getTokenFromRequest(request);
             
-            if (StringUtils.hasText(token) && tokenProvider.validateToken(token)) {
-                String userId = tokenProvider.getUserIdFromToken(token);
+            // Verify once and reuse the claims for every check below
+            VerifiedToken verified = StringUtils.hasText(token) 
+                    ? tokenProvider.verify(token).orElse(null) 
+                    : null;
+            
+            if (verified != null) {
+                String userId = verified.getUserId();
                 
-                // Only process access tokens for authentication
-                if (tokenProvider.isAccessToken(token)) {
-                    SecurityUserDetails userDetails = userDetailsService.loadUserById(userId);
+                // Only process access tokens whose session has not been revoked
+                if (verified.isAccessToken() && !isSessionRevoked(verified)) {
+                    SecurityUserDetails userDetails = "database".equals(principalMode)
+                            ? userDetailsService.loadUserById(userId)
+                            : userDetailsService.loadUserFromToken(verified);
+                    userDetails.setCourseRoleClaims(CourseRoleClaims.fromToken(verified));
                     
                     UsernamePasswordAuthenticationToken authentication = 
                             new UsernamePasswordAuthenticationToken(
@@ -68,6 +86,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
     
+    /**
+     * Check the refresh token family of an access token against the revocation filter.
+     * Tokens issued before session tracking carry no family and are never revoked this way.
+     */
+    private boolean isSessionRevoked(VerifiedToken verified) {
+        String familyId = verified.getFamilyId();
+        if (familyId != null && refreshTokenService.isFamilyRevoked(familyId)) {
+            log.debug("Rejected access token of revoked session {}", familyId);
+            return true;
+        }
+        return false;
+    }
+    
     /**
      * Extract JWT token from Authorization header.
      * Format: "Bearer <token>"
@@ -0,0 +1,96 @@
+package com.courseflow.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Bounded cache of verified JWT claims keyed by a SHA-256 digest of the token.
+ * Entries live until the token expires (capped by the configured TTL), so repeat
+ * requests with the same access token skip signature verification.
+ */
+@Component
+public class JwtClaimsCache {
+    
+    private final Cache<String, VerifiedToken> cache;
+    
+    public JwtClaimsCache(
+            @Value("${jwt.claims-cache.maximum-size:10000}") long maximumSize,
+            @Value("${jwt.claims-cache.max-ttl:900000}") long maxTtlMs,
+            MeterRegistry meterRegistry) {
+        Duration maxTtl = Duration.ofMillis(maxTtlMs);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        Duration remaining = Duration.between(Instant.now(), token.getExpiresAt());
+                        Duration ttl = remaining.compareTo(maxTtl) < 0 ? remaining : maxTtl;
+                        return Math.max(0, ttl.toNanos());
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtClaims");
+    }
+    
+    /**
+     * Look up verified claims for a token.
+     * 
+     * @param token The raw JWT
+     * @return Verified token, or null if not cached or already expired
+     */
+    public VerifiedToken get(String token) {
+        VerifiedToken verified = cache.getIfPresent(digest(token));
+        if (verified != null && verified.isExpiredAt(Instant.now())) {
+            return null;
+        }
+        return verified;
+    }
+    
+    /**
+     * Store claims for a token that has just been verified.
+     * 
+     * @param token The raw JWT
+     * @param verified The verified claims
+     */
+    public void put(String token, VerifiedToken verified) {
+        cache.put(digest(token), verified);
+    }
+    
+    /**
+     * Hash the token so raw bearer tokens are never kept as map keys.
+     */
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
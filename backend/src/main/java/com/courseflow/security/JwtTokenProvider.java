@@ -12,7 +12,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Optional;
 
 /**
  * JWT Token Provider for generating and validating JWT tokens.
@@ -25,59 +25,95 @@ public class JwtTokenProvider {
     private final SecretKey secretKey;
     private final long accessTokenTtl;
     private final long refreshTokenTtl;
+    private final JwtClaimsCache claimsCache;
     
     public JwtTokenProvider(
             @Value("${jwt.secret}") String secret,
             @Value("${jwt.access-token-ttl}") long accessTokenTtl,
-            @Value("${jwt.refresh-token-ttl}") long refreshTokenTtl) {
+            @Value("${jwt.refresh-token-ttl}") long refreshTokenTtl,
+            JwtClaimsCache claimsCache) {
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.accessTokenTtl = accessTokenTtl;
         this.refreshTokenTtl = refreshTokenTtl;
+        this.claimsCache = claimsCache;
     }
     
     /**
      * Generate access token for a user.
-     * Access tokens are short-lived (default: 15 minutes).
+     * Access tokens are short-lived (default: 15 minutes). They carry the user's token version
+     * (older versions are rejected), optionally the user's active course roles so course permission
+     * checks can be answered from the token alone, and the refresh token family of the session,
+     * so revoking the family (logout or refresh token reuse) also rejects its access tokens.
      * 
      * @param userId The user ID
      * @param email The user email
      * @param role The user role
+     * @param tokenVersion The user's current token version
+     * @param courseRoles Course role claims to embed, or null to omit them
+     * @param familyId Refresh token family ID, or null if the token is not bound to a session
      * @return JWT access token string
      */
-    public String generateAccessToken(String userId, String email, String role) {
+    public String generateAccessToken(String userId, String email, String role, long tokenVersion,
+                                      CourseRoleClaims courseRoles, String familyId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("email", email);
         claims.put("role", role);
+        claims.put("ver", tokenVersion);
         claims.put("type", "access");
+        if (courseRoles != null) {
+            courseRoles.writeTo(claims);
+        }
+        if (familyId != null) {
+            claims.put("fam", familyId);
+        }
         
-        return generateToken(claims, userId, accessTokenTtl);
+        return generateToken(claims, userId, null, accessTokenTtl);
     }
     
     /**
-     * Generate refresh token for a user.
-     * Refresh tokens are long-lived (default: 7 days).
+     * Generate a tracked refresh token for a user.
+     * Refresh tokens are long-lived (default: 7 days). The token ID and family ID identify
+     * the token in the refresh token store.
      * 
      * @param userId The user ID
      * @param email The user email
+     * @param tokenId Unique token ID (jti claim)
+     * @param familyId Family shared by every token rotated from the same sign-in
      * @return JWT refresh token string
      */
-    public String generateRefreshToken(String userId, String email) {
+    public String generateRefreshToken(String userId, String email, String tokenId, String familyId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("email", email);
         claims.put("type", "refresh");
+        claims.put("fam", familyId);
         
-        return generateToken(claims, userId, refreshTokenTtl);
+        return generateToken(claims, userId, tokenId, refreshTokenTtl);
     }
     
     /**
-     * Generate a JWT token with the given claims and expiration time.
+     * Get the access token lifetime in milliseconds.
      */
-    private String generateToken(Map<String, Object> claims, String subject, long expirationMs) {
+    public long getAccessTokenTtl() {
+        return accessTokenTtl;
+    }
+    
+    /**
+     * Get the refresh token lifetime in milliseconds.
+     */
+    public long getRefreshTokenTtl() {
+        return refreshTokenTtl;
+    }
+    
+    /**
+     * Generate a JWT token with the given claims, optional token ID and expiration time.
+     */
+    private String generateToken(Map<String, Object> claims, String subject, String tokenId, long expirationMs) {
         Date now = new Date();
         Date expiration = new Date(now.getTime() + expirationMs);
         
         return Jwts.builder()
                 .claims(claims)
+                .id(tokenId)
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expiration)
@@ -86,100 +122,43 @@ public class JwtTokenProvider {
     }
     
     /**
-     * Validate a JWT token.
+     * Verify a JWT token once and return its claims.
+     * Verified claims are cached, so repeat calls with the same token skip
+     * signature verification until the token expires.
      * 
-     * @param token The token to validate
-     * @return true if token is valid, false otherwise
+     * @param token The token to verify
+     * @return Verified token, or empty if the token is invalid or expired
      */
-    public boolean validateToken(String token) {
+    public Optional<VerifiedToken> verify(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(secretKey)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return Optional.of(parseToken(token));
         } catch (Exception e) {
             log.debug("Invalid token: {}", e.getMessage());
-            return false;
+            return Optional.empty();
         }
     }
     
     /**
-     * Extract user ID (subject) from token.
-     * 
-     * @param token The JWT token
-     * @return User ID
-     */
-    public String getUserIdFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
-    }
-    
-    /**
-     * Extract email from token.
-     * 
-     * @param token The JWT token
-     * @return User email
-     */
-    public String getEmailFromToken(String token) {
-        return getClaimFromToken(token, claims -> claims.get("email", String.class));
-    }
-    
-    /**
-     * Extract role from token.
-     * 
-     * @param token The JWT token
-     * @return User role
-     */
-    public String getRoleFromToken(String token) {
-        return getClaimFromToken(token, claims -> claims.get("role", String.class));
-    }
-    
-    /**
-     * Check if token is a refresh token.
+     * Get verified claims for a token, parsing and verifying it only on a cache miss.
      * 
      * @param token The JWT token
-     * @return true if token is a refresh token
+     * @return Verified token
+     * @throws io.jsonwebtoken.JwtException if the token is invalid or expired
      */
-    public boolean isRefreshToken(String token) {
-        String type = getClaimFromToken(token, claims -> claims.get("type", String.class));
-        return "refresh".equals(type);
-    }
-    
-    /**
-     * Check if token is an access token.
-     * 
-     * @param token The JWT token
-     * @return true if token is an access token
-     */
-    public boolean isAccessToken(String token) {
-        String type = getClaimFromToken(token, claims -> claims.get("type", String.class));
-        return "access".equals(type);
-    }
-    
-    /**
-     * Extract a claim from token.
-     * 
-     * @param token The JWT token
-     * @param claimsResolver Function to extract the claim
-     * @return The claim value
-     */
-    private <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        Claims claims = getAllClaimsFromToken(token);
-        return claimsResolver.apply(claims);
-    }
-    
-    /**
-     * Get all claims from token.
-     * 
-     * @param token The JWT token
-     * @return Claims object
-     */
-    private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
+    private VerifiedToken parseToken(String token) {
+        VerifiedToken cached = claimsCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        
+        Claims claims = Jwts.parser()
                 .verifyWith(secretKey)
                 .build()
                 .parseSignedClaims(token)
                 .getPayload();
+        
+        VerifiedToken verified = new VerifiedToken(claims);
+        claimsCache.put(token, verified);
+        return verified;
     }
 }
-
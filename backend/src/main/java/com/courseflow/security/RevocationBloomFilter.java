@@ -0,0 +1,155 @@
+package com.courseflow.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time-partitioned Bloom filter of revoked keys (refresh token family IDs).
+ * A negative answer is definite, so the common "not revoked" check never leaves memory;
+ * a positive answer only means the caller has to confirm against the revocation store.
+ * 
+ * Keys are added to the current generation. Generations rotate every {@code generationTtlMs}
+ * and two are consulted, so a key is remembered for at least one generation TTL and the filter
+ * never fills up with keys that no longer matter.
+ */
+public class RevocationBloomFilter {
+    
+    private final int bitCount;
+    private final int hashCount;
+    private final long generationTtlMs;
+    
+    private volatile Generation current;
+    private volatile Generation previous;
+    
+    /**
+     * @param expectedInsertions Keys expected per generation
+     * @param falsePositiveRate Target false positive rate per generation
+     * @param generationTtlMs How long a generation accepts new keys
+     */
+    public RevocationBloomFilter(int expectedInsertions, double falsePositiveRate, long generationTtlMs) {
+        int n = Math.max(1, expectedInsertions);
+        double bits = -n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.bitCount = (int) Math.max(64, Math.min(Integer.MAX_VALUE - 63, Math.ceil(bits)));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        this.generationTtlMs = generationTtlMs;
+        
+        long now = System.currentTimeMillis();
+        this.current = new Generation(bitCount, now);
+        this.previous = new Generation(bitCount, now);
+    }
+    
+    /**
+     * Record a key as revoked.
+     */
+    public void add(String key) {
+        rotateIfDue();
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        Generation generation = current;
+        for (int i = 0; i < hashCount; i++) {
+            generation.set(index(h1, h2, i));
+        }
+    }
+    
+    /**
+     * Check whether a key may have been revoked.
+     * 
+     * @return false if the key is definitely not revoked, true if it must be confirmed
+     */
+    public boolean mightContain(String key) {
+        rotateIfDue();
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return contains(current, h1, h2) || contains(previous, h1, h2);
+    }
+    
+    /**
+     * Get the size of one generation in bits.
+     */
+    public int getBitCount() {
+        return bitCount;
+    }
+    
+    /**
+     * Get the number of hash functions per key.
+     */
+    public int getHashCount() {
+        return hashCount;
+    }
+    
+    private boolean contains(Generation generation, int h1, int h2) {
+        for (int i = 0; i < hashCount; i++) {
+            if (!generation.get(index(h1, h2, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void rotateIfDue() {
+        if (System.currentTimeMillis() - current.createdAt < generationTtlMs) {
+            return;
+        }
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            if (now - current.createdAt >= generationTtlMs) {
+                previous = current;
+                current = new Generation(bitCount, now);
+            }
+        }
+    }
+    
+    /**
+     * Kirsch-Mitzenmacher double hashing: the i-th probe is h1 + i * h2.
+     */
+    private int index(int h1, int h2, int i) {
+        int combined = h1 + i * h2;
+        return (combined & Integer.MAX_VALUE) % bitCount;
+    }
+    
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer.
+     */
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    private static final class Generation {
+        
+        private final AtomicLongArray words;
+        private final long createdAt;
+        
+        private Generation(int bitCount, long createdAt) {
+            this.words = new AtomicLongArray((bitCount + 63) >>> 6);
+            this.createdAt = createdAt;
+        }
+        
+        private void set(int bit) {
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long value;
+            do {
+                value = words.get(word);
+                if ((value & mask) != 0) {
+                    return;
+                }
+            } while (!words.compareAndSet(word, value, value | mask));
+        }
+        
+        private boolean get(int bit) {
+            return (words.get(bit >>> 6) & (1L << bit)) != 0;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.courseflow.security;
 
 import com.courseflow.users.model.User;
 import lombok.Getter;
+import lombok.Setter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,6 +21,12 @@ public class SecurityUserDetails implements UserDetails {
     private final String password;
     private final Collection<? extends GrantedAuthority> authorities;
     
+    /**
+     * Course roles carried by the access token, or null if the token has none.
+     */
+    @Setter
+    private CourseRoleClaims courseRoleClaims;
+    
     public SecurityUserDetails(User user) {
         this.id = user.getId();
         this.email = user.getEmail();
@@ -29,6 +36,23 @@ public class SecurityUserDetails implements UserDetails {
         );
     }
     
+    /**
+     * Build user details directly from verified access token claims, without loading the user.
+     * The password is not available in this mode.
+     * 
+     * @param id The user ID
+     * @param email The user email
+     * @param role The user role name
+     */
+    public SecurityUserDetails(String id, String email, String role) {
+        this.id = id;
+        this.email = email;
+        this.password = null;
+        this.authorities = Collections.singletonList(
+                new SimpleGrantedAuthority("ROLE_" + role)
+        );
+    }
+    
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -3,6 +3,7 @@ package com.courseflow.security;
 import com.courseflow.users.model.User;
 import com.courseflow.users.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.CredentialsExpiredException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -16,6 +17,7 @@ import org.springframework.stereotype.Service;
 public class UserDetailsServiceImpl implements UserDetailsService {
     
     private final UserRepository userRepository;
+    private final UserTokenStateCache userTokenStateCache;
     
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -38,5 +40,28 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         
         return new SecurityUserDetails(user);
     }
+    
+    /**
+     * Build user details from verified access token claims without a per-request user lookup.
+     * The token is rejected if the user no longer exists, their role changed, or their token
+     * version was bumped; that state is revalidated at most once per configured interval.
+     * 
+     * @param token Verified access token
+     * @return UserDetails
+     * @throws UsernameNotFoundException if user not found
+     * @throws CredentialsExpiredException if the token was revoked or the role changed
+     */
+    public SecurityUserDetails loadUserFromToken(VerifiedToken token) {
+        UserTokenStateCache.UserTokenState state = userTokenStateCache.get(token.getUserId());
+        
+        if (!state.exists()) {
+            throw new UsernameNotFoundException("User not found with id: " + token.getUserId());
+        }
+        
+        if (!state.accepts(token.getRole(), token.getTokenVersion())) {
+            throw new CredentialsExpiredException("Access token is no longer valid for user: " + token.getUserId());
+        }
+        
+        return new SecurityUserDetails(token.getUserId(), token.getEmail(), token.getRole());
+    }
 }
-
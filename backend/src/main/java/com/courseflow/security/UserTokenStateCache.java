@@ -0,0 +1,94 @@
+package com.courseflow.security;
+
+import com.courseflow.users.model.User;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Short-lived cache of the user fields that decide whether an access token is still honoured
+ * (role and token version) and whether its embedded course roles are current (enrollment version). Each user is re-read from MongoDB at most once per revalidation
+ * interval, which bounds how long a role change or revocation takes to apply to stateless principals.
+ */
+@Component
+public class UserTokenStateCache {
+    
+    private final LoadingCache<String, UserTokenState> cache;
+    private final MongoTemplate mongoTemplate;
+    
+    public UserTokenStateCache(
+            MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${auth.revalidation-interval:60000}") long revalidationIntervalMs,
+            @Value("${auth.token-state-cache.maximum-size:50000}") long maximumSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(revalidationIntervalMs))
+                .recordStats()
+                .build(this::load);
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userTokenState");
+    }
+    
+    /**
+     * Get the current token state for a user.
+     * 
+     * @param userId The user ID
+     * @return Token state ({@link UserTokenState#MISSING} if the user no longer exists)
+     */
+    public UserTokenState get(String userId) {
+        return cache.get(userId);
+    }
+    
+    /**
+     * Drop the cached state for a user so the next request re-reads it.
+     * 
+     * @param userId The user ID
+     */
+    public void invalidate(String userId) {
+        cache.invalidate(userId);
+    }
+    
+    /**
+     * Load only the fields needed for token revalidation.
+     */
+    private UserTokenState load(String userId) {
+        Query query = new Query(Criteria.where("_id").is(userId));
+        query.fields().include("role", "tokenVersion", "enrollmentVersion");
+        
+        User user = mongoTemplate.findOne(query, User.class);
+        if (user == null) {
+            return UserTokenState.MISSING;
+        }
+        
+        long tokenVersion = user.getTokenVersion() != null ? user.getTokenVersion() : 0L;
+        long enrollmentVersion = user.getEnrollmentVersion() != null ? user.getEnrollmentVersion() : 0L;
+        return new UserTokenState(true, user.getRole(), tokenVersion, enrollmentVersion);
+    }
+    
+    /**
+     * Snapshot of a user's token-relevant state.
+     */
+    public record UserTokenState(boolean exists, User.UserRole role, long tokenVersion, long enrollmentVersion) {
+        
+        public static final UserTokenState MISSING = new UserTokenState(false, null, 0L, 0L);
+        
+        /**
+         * Check whether a token issued with the given role and version is still valid.
+         */
+        public boolean accepts(String tokenRole, long tokenVersion) {
+            return exists
+                    && role != null
+                    && role.name().equals(tokenRole)
+                    && tokenVersion >= this.tokenVersion;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.courseflow.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Claims of a JWT whose signature and expiration have already been verified.
+ * Parsed once per token and shared by all callers that need its claims.
+ */
+@Getter
+public class VerifiedToken {
+    
+    private final Claims claims;
+    private final String userId;
+    private final String type;
+    private final Instant expiresAt;
+    
+    public VerifiedToken(Claims claims) {
+        this.claims = claims;
+        this.userId = claims.getSubject();
+        this.type = claims.get("type", String.class);
+        this.expiresAt = claims.getExpiration().toInstant();
+    }
+    
+    /**
+     * Get the email claim.
+     */
+    public String getEmail() {
+        return claims.get("email", String.class);
+    }
+    
+    /**
+     * Get the role claim (only present on access tokens).
+     */
+    public String getRole() {
+        return claims.get("role", String.class);
+    }
+    
+    /**
+     * Get the token version claim. Tokens issued before versioning count as version 0.
+     */
+    public long getTokenVersion() {
+        Number version = claims.get("ver", Number.class);
+        return version != null ? version.longValue() : 0L;
+    }
+    
+    /**
+     * Get the token ID (jti claim). Only refresh tokens carry one.
+     */
+    public String getTokenId() {
+        return claims.getId();
+    }
+    
+    /**
+     * Get the refresh token family this token belongs to (fam claim).
+     * Tokens issued before refresh-token tracking have none.
+     */
+    public String getFamilyId() {
+        return claims.get("fam", String.class);
+    }
+    
+    /**
+     * Check if this is an access token.
+     */
+    public boolean isAccessToken() {
+        return "access".equals(type);
+    }
+    
+    /**
+     * Check if this is a refresh token.
+     */
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+    
+    /**
+     * Check if the token has expired at the given instant.
+     */
+    public boolean isExpiredAt(Instant instant) {
+        return !expiresAt.isAfter(instant);
+    }
+}
@@ -36,6 +36,27 @@ public class User {
     @Builder.Default
     private UserRole role = UserRole.STUDENT;
     
+    /**
+     * Incremented whenever previously issued access tokens must stop being honoured
+     * (e.g. role change or account disable). Access tokens carry the version they were issued with.
+     */
+    @Builder.Default
+    private Long tokenVersion = 0L;
+    
+    /**
+     * Incremented whenever the user's enrollments change. Course roles embedded in access
+     * tokens are only trusted while their stamp matches this version.
+     */
+    @Builder.Default
+    private Long enrollmentVersion = 0L;
+    
+    /**
+     * SHA-256 digest of the user's calendar feed token; absent until a feed is created.
+     * The token itself is only shown when it is issued.
+     */
+    @Indexed(unique = true, sparse = true)
+    private String calendarFeedTokenHash;
+    
     @CreatedDate
     private Instant createdAt;
     